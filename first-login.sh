@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+set -u
+
+# Measures the time from launching the JVM to the first successful sign-in.
+# Everything after the script name is passed to java, so the jar must come last:
+#   ./first-login.sh -jar target/spring-auth-app-1.0.0.jar
+# The user in FIRST_LOGIN_USERNAME / FIRST_LOGIN_PASSWORD must already exist in the database.
+
+if [ $# -eq 0 ]; then
+  echo "Usage: ./first-login.sh [java options] -jar <jar>"
+  exit 1
+fi
+
+PORT="${FIRST_LOGIN_PORT:-8080}"
+LOGIN_USERNAME="${FIRST_LOGIN_USERNAME:-warmuser}"
+LOGIN_PASSWORD="${FIRST_LOGIN_PASSWORD:-password123}"
+LOG_FILE="${FIRST_LOGIN_LOG:-first-login.log}"
+
+START=$(date +%s%N)
+java "$@" --server.port="$PORT" > "$LOG_FILE" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null; wait $PID 2>/dev/null' EXIT
+
+while kill -0 $PID 2>/dev/null; do
+  LOCATION=$(curl -s -o /dev/null -w '%{redirect_url}' \
+    --data-urlencode "username=$LOGIN_USERNAME" \
+    --data-urlencode "password=$LOGIN_PASSWORD" \
+    "http://localhost:$PORT/login")
+  if [[ "$LOCATION" == */dashboard ]]; then
+    echo "First successful login after $(( ($(date +%s%N) - START) / 1000000 )) ms"
+    exit 0
+  fi
+  sleep 0.05
+done
+
+echo "Application exited before a successful login; see $LOG_FILE"
+exit 1
@@ -0,0 +1,114 @@
+package com.auth.app.benchmark;
+
+import com.auth.app.service.AuthService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Requests per second for the same work through the HTML controller and the JSON API: a sign-in,
+ * and a profile read (the dashboard page against {@code GET /api/v1/profile}). Both run through
+ * the security filter chain with MockMvc, so the difference is rendering, redirects and sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ApiThroughputBenchmark {
+
+    private static final String USERNAME = "benchmark_api_user";
+    private static final String PASSWORD = "password123";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private MockHttpSession session;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "auth.login-throttle.enabled=false", "auth.login-lockout.enabled=false");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        context.getBean(AuthService.class).signUp(USERNAME, "benchmark.api@example.com", PASSWORD, "Benchmark user");
+
+        session = (MockHttpSession) perform(htmlLoginRequest()).getRequest().getSession();
+        String token = perform(apiLoginRequest()).getResponse().getContentAsString();
+        bearerToken = "Bearer " + new ObjectMapper().readTree(token).get("token").asText();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult htmlLogin() throws Exception {
+        return perform(htmlLoginRequest());
+    }
+
+    @Benchmark
+    public MvcResult apiLogin() throws Exception {
+        return perform(apiLoginRequest());
+    }
+
+    @Benchmark
+    public MvcResult htmlDashboard() throws Exception {
+        return perform(get("/dashboard").session(session));
+    }
+
+    @Benchmark
+    public MvcResult apiProfile() throws Exception {
+        return perform(get("/api/v1/profile").header("Authorization", bearerToken));
+    }
+
+    private RequestBuilder htmlLoginRequest() {
+        return post("/login").param("username", USERNAME).param("password", PASSWORD);
+    }
+
+    private RequestBuilder apiLoginRequest() {
+        return post("/api/v1/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        if (status >= 400) {
+            throw new IllegalStateException("Request failed with status " + status);
+        }
+        return result;
+    }
+}
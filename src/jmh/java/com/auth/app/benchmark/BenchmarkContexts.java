@@ -0,0 +1,31 @@
+package com.auth.app.benchmark;
+
+import com.auth.app.SpringAuthAppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application on the test profile (in-memory H2) for a benchmark trial. Arguments are
+ * passed as command line properties so they override application-test.properties.
+ */
+public final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        String[] args = Stream.concat(
+                Stream.of("--server.port=0", "--logging.level.root=WARN", "--logging.level.com.auth.app=WARN",
+                        "--logging.level.org.springframework.web=WARN", "--spring.main.banner-mode=off"),
+                Arrays.stream(properties).map(property -> "--" + property))
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SpringAuthAppApplication.class)
+                .profiles("test")
+                .web(webApplicationType)
+                .run(args);
+    }
+}
@@ -0,0 +1,80 @@
+package com.auth.app.benchmark;
+
+import com.auth.app.service.AuthService;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * A full POST /login round trip through the security filter chain, the async hashing pool and
+ * the redirect, measured with MockMvc so the numbers exclude socket and Tomcat overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        // Throttling and lockout would turn the repeated attempts into cheap 429s
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "auth.login-throttle.enabled=false", "auth.login-lockout.enabled=false");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        context.getBean(AuthService.class).signUp("benchmark_user", "benchmark.user@example.com", "password123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult successfulLogin() throws Exception {
+        return login("password123");
+    }
+
+    @Benchmark
+    public MvcResult failedLogin() throws Exception {
+        return login("wrongpassword");
+    }
+
+    private MvcResult login(String password) throws Exception {
+        MvcResult started = mockMvc.perform(post("/login")
+                        .param("username", "benchmark_user")
+                        .param("password", password))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+        if (result.getResponse().getStatus() >= 500) {
+            throw new IllegalStateException("Login failed with status " + result.getResponse().getStatus());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.auth.app.benchmark;
+
+import com.auth.app.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthService#validatePassword(String, String)} at several BCrypt strengths. Each step
+ * doubles the cost, so a strength change shows up here long before it shows up in login latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordValidationBenchmark {
+
+    private static final String RAW_PASSWORD = "password123";
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE, "auth.password.bcrypt-strength=" + strength);
+        authService = context.getBean(AuthService.class);
+        encodedPassword = context.getBean(PasswordEncoder.class).encode(RAW_PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean matchingPassword() {
+        return authService.validatePassword(RAW_PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean wrongPassword() {
+        return authService.validatePassword("wrongpassword", encodedPassword);
+    }
+}
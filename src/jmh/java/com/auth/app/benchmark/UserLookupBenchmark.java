@@ -0,0 +1,100 @@
+package com.auth.app.benchmark;
+
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking a user up by username against H2. The cold variant opens a fresh persistence context per
+ * call, so every lookup hydrates a new entity; the warm variant reuses one for the whole iteration,
+ * so only the query runs. The cached variant goes through {@link AuthService} and its user cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserLookupBenchmark {
+
+    private static final String USERNAME = "benchmark_user";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private AuthService authService;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        userRepository = context.getBean(UserRepository.class);
+        authService = context.getBean(AuthService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        authService.signUp(USERNAME, "benchmark.user@example.com", "password123");
+        for (int i = 0; i < 1000; i++) {
+            authService.signUp("filler_user_" + i, "filler" + i + "@example.com", "password123");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class WarmPersistenceContext {
+
+        private PlatformTransactionManager transactionManager;
+        private TransactionStatus transaction;
+
+        @Setup(Level.Iteration)
+        public void begin(UserLookupBenchmark benchmark) {
+            transactionManager = benchmark.context.getBean(PlatformTransactionManager.class);
+            DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+            definition.setReadOnly(true);
+            transaction = transactionManager.getTransaction(definition);
+        }
+
+        @TearDown(Level.Iteration)
+        public void end() {
+            transactionManager.rollback(transaction);
+        }
+    }
+
+    @Benchmark
+    public Optional<User> coldPersistenceContext() {
+        return readOnlyTransaction.execute(status -> userRepository.findByUsernameKey(USERNAME));
+    }
+
+    @Benchmark
+    public Optional<User> warmPersistenceContext(WarmPersistenceContext warm) {
+        return userRepository.findByUsernameKey(USERNAME);
+    }
+
+    @Benchmark
+    public Optional<User> userCache() {
+        return authService.findByUsername(USERNAME);
+    }
+}
@@ -0,0 +1,67 @@
+package com.auth.app.service;
+
+import com.auth.app.benchmark.BenchmarkContexts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The input checks {@link AuthService#signUp} runs before touching the database, including the
+ * {@code EMAIL_PATTERN} match. Lives in the service package to reach the package-private validators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SignUpValidationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        authService = context.getBean(AuthService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void validSignUp() {
+        authService.validateUsername("benchmark_user");
+        authService.validateEmail("benchmark.user@example.com");
+        authService.validatePassword("password123");
+    }
+
+    @Benchmark
+    public void validEmail() {
+        authService.validateEmail("first.last+tag@sub.example.co.uk");
+    }
+
+    @Benchmark
+    public String invalidEmail() {
+        try {
+            authService.validateEmail("not-an-email@example");
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
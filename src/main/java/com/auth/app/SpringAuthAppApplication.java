@@ -2,12 +2,16 @@ package com.auth.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.auth.app"})
 @EnableJpaRepositories(basePackages = {"com.auth.app.repository"})
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class SpringAuthAppApplication {
 
     public static void main(String[] args) {
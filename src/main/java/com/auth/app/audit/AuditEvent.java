@@ -0,0 +1,8 @@
+package com.auth.app.audit;
+
+/**
+ * An audit entry as handed to an {@link AuditSink}. {@code userId} is null for a sign-in attempt
+ * on an unknown username, and {@code username} is null when only the id was at hand.
+ */
+public record AuditEvent(long occurredAt, AuthEventType type, String tenant, Long userId, String username) {
+}
@@ -0,0 +1,242 @@
+package com.auth.app.audit;
+
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffers authentication events in a bounded ring so request threads never wait on the audit
+ * store. Slots are allocated up front and producers claim them with a CAS on a shared counter, so
+ * recording an event allocates nothing and takes no lock. A single writer thread drains the ring
+ * in batches to the {@link AuditSink}, and drains whatever is left when the application shuts down.
+ *
+ * <p>When the ring is full the overflow policy decides: {@code drop} discards the event at once,
+ * {@code block} waits up to {@code auth.audit.block-timeout-ms} for space and then drops. Dropped
+ * events and failed batches are counted, never retried.
+ */
+@Slf4j
+@Component
+public class AuditLog implements DisposableBean {
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK;
+
+        static OverflowPolicy parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditSink sink;
+    private final boolean enabled;
+    private final int capacity;
+    private final int mask;
+    private final Slot[] slots;
+    // Slot i is free for the producer at position p when its sequence is p, and holds the event
+    // for the writer at position p when its sequence is p + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMillis;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean paused;
+
+    public AuditLog(AuditSink sink,
+                    @Value("${auth.audit.enabled:true}") boolean enabled,
+                    @Value("${auth.audit.capacity:8192}") int capacity,
+                    @Value("${auth.audit.batch-size:500}") int batchSize,
+                    @Value("${auth.audit.flush-interval-ms:200}") long flushIntervalMillis,
+                    @Value("${auth.audit.overflow:drop}") String overflowPolicy,
+                    @Value("${auth.audit.block-timeout-ms:50}") long blockTimeoutMillis,
+                    @Value("${auth.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        if (capacity <= 0 || batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("auth.audit.capacity, batch-size and flush-interval-ms must be positive");
+        }
+        this.sink = sink;
+        this.enabled = enabled;
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new Slot[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        this.overflowPolicy = OverflowPolicy.parse(overflowPolicy);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.writer = new Thread(this::drainUntilStopped, "audit-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Queues an event for the writer. Returns without waiting unless the ring is full and the
+     * overflow policy is {@code block}.
+     */
+    public void record(AuthEventType type, Long userId, String username) {
+        if (!enabled || paused || !running) {
+            return;
+        }
+        long deadline = 0;
+        while (true) {
+            long position = claimed.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (claimed.compareAndSet(position, position + 1)) {
+                    Slot slot = slots[index];
+                    slot.occurredAt = System.currentTimeMillis();
+                    slot.type = type;
+                    slot.tenant = TenantContext.current();
+                    slot.userId = userId;
+                    slot.username = username;
+                    sequences.set(index, position + 1);
+                    return;
+                }
+            } else if (lag < 0) {
+                // The writer hasn't freed this slot yet: the ring is full
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + blockTimeoutNanos;
+                } else if (System.nanoTime() - deadline > 0) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+            // Otherwise another producer took this position first; try the next one
+        }
+    }
+
+    /**
+     * Stops recording until {@link #resumeRecording()}, for synthetic traffic such as the
+     * startup warmup.
+     */
+    public void pauseRecording() {
+        paused = true;
+    }
+
+    public void resumeRecording() {
+        paused = false;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getQueuedCount() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops accepting events, then waits for the writer to drain the ring before closing the sink.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            LockSupport.unpark(writer);
+            writer.join(shutdownTimeoutMillis);
+            if (writer.isAlive()) {
+                log.warn("Audit writer did not finish within {} ms; {} events were not written",
+                        shutdownTimeoutMillis, getQueuedCount());
+            }
+        }
+        sink.close();
+    }
+
+    private void drainUntilStopped() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            drainTo(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+            } else if (!running) {
+                return;
+            } else {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void drainTo(List<AuditEvent> batch) {
+        long position = consumed;
+        while (batch.size() < batchSize) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            Slot slot = slots[index];
+            batch.add(new AuditEvent(slot.occurredAt, slot.type, slot.tenant, slot.userId, slot.username));
+            slot.type = null;
+            slot.tenant = null;
+            slot.userId = null;
+            slot.username = null;
+            sequences.set(index, position + capacity);
+            position++;
+        }
+        consumed = position;
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.warn("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static final class Slot {
+
+        private long occurredAt;
+        private AuthEventType type;
+        private String tenant;
+        private Long userId;
+        private String username;
+    }
+}
@@ -0,0 +1,15 @@
+package com.auth.app.audit;
+
+import java.util.List;
+
+/**
+ * Where {@link AuditLog} writes its batches: the {@code auth_events} table by default, or an
+ * append-only file with {@code auth.audit.sink=file}. Only ever called from the audit writer thread.
+ */
+public interface AuditSink {
+
+    void write(List<AuditEvent> events);
+
+    default void close() {
+    }
+}
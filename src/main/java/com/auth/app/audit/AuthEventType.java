@@ -0,0 +1,9 @@
+package com.auth.app.audit;
+
+public enum AuthEventType {
+    SIGNUP,
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    SETTINGS_CHANGE,
+    EMAIL_VERIFIED
+}
@@ -0,0 +1,73 @@
+package com.auth.app.audit;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each event to a local file as one JSON object per line, flushed after every batch.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.audit.sink", havingValue = "file")
+public class FileAuditSink implements AuditSink {
+
+    private final Path file;
+    private final OutputStream out;
+    private final JsonGenerator json;
+
+    public FileAuditSink(@Value("${auth.audit.file:audit.ndjson}") String file) throws IOException {
+        this.file = Path.of(file).toAbsolutePath();
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        this.out = Files.newOutputStream(this.file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.json.setRootValueSeparator(null);
+        log.info("Writing audit events to {}", this.file);
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) {
+        try {
+            for (AuditEvent event : events) {
+                json.writeStartObject();
+                json.writeNumberField("occurredAt", event.occurredAt());
+                json.writeStringField("eventType", event.type().name());
+                json.writeStringField("tenant", event.tenant());
+                if (event.userId() != null) {
+                    json.writeNumberField("userId", event.userId());
+                }
+                if (event.username() != null) {
+                    json.writeStringField("username", event.username());
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            json.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.auth.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks a BCrypt cost for this host by timing the minimum cost and extrapolating, since every
+ * extra cost step doubles the work. Only the minimum cost is ever hashed, so startup stays cheap.
+ */
+@Slf4j
+final class BCryptCostCalibrator {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 5;
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(long targetVerifyMillis) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        encoder.matches(SAMPLE_PASSWORD, hash);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        double estimatedMillis = bestNanos / 1_000_000.0;
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && estimatedMillis * 2 <= targetVerifyMillis) {
+            estimatedMillis *= 2;
+            strength++;
+        }
+        log.info("BCrypt cost calibrated to {} (~{} ms per verify, target {} ms)",
+                strength, Math.round(estimatedMillis), targetVerifyMillis);
+        return strength;
+    }
+}
@@ -1,12 +1,21 @@
 package com.auth.app.config;
 
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.datasource.TenantRoutingDataSource;
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantIdentifierResolver;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -15,6 +24,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -33,21 +43,114 @@ public class DataSourceConfig {
     
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
-    
+
+    // With virtual threads there is no request-thread ceiling, so this pool is the real
+    // concurrency limit on the database: size it for the server, not for Tomcat
+    @Value("${auth.datasource.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${auth.datasource.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${auth.datasource.connection-timeout-ms:20000}")
+    private long connectionTimeoutMillis;
+
+    // Read-only transactions are spread over these; each replica gets its own pool
+    @Value("${auth.datasource.replica.urls:}")
+    private String[] replicaUrls;
+
+    @Value("${auth.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${auth.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${auth.datasource.replica.maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    @Value("${auth.datasource.replica.minimum-idle:2}")
+    private int replicaMinimumIdle;
+
+    @Value("${auth.datasource.replica.health-check-interval-ms:5000}")
+    private long replicaHealthCheckIntervalMillis;
+
+    @Value("${spring.flyway.enabled:true}")
+    private boolean flywayEnabled;
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] flywayLocations;
+
+    @Value("${spring.flyway.baseline-on-migrate:false}")
+    private boolean flywayBaselineOnMigrate;
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        DataSource primary = createPool("auth-pool", datasourceUrl, datasourceUsername, datasourcePassword,
+                maximumPoolSize, minimumIdle, false, meterRegistry);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (!url.isBlank()) {
+                String name = "auth-replica-pool-" + (replicas.size() + 1);
+                replicas.put(name, createPool(name, url.trim(), replicaUsername, replicaPassword,
+                        replicaMaximumPoolSize, replicaMinimumIdle, true, meterRegistry));
+            }
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, replicaHealthCheckIntervalMillis);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("auth.datasource.replicas.healthy", routing,
+                        ReadWriteRoutingDataSource::getHealthyReplicaCount)
+                .description("Read replicas currently taking read-only transactions")
+                .register(registry));
+        return routing;
+    }
+
+    // Tenants with a database (or schema, through the URL) of their own get a pool each and skip
+    // the replicas; the rest share the routing pool above, each up to its connection quota
+    @Bean(destroyMethod = "close")
+    public TenantRoutingDataSource tenantRoutingDataSource(ReadWriteRoutingDataSource routingDataSource,
+                                                           TenancyProperties tenancyProperties,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> dedicated = new LinkedHashMap<>();
+        tenancyProperties.datasources().forEach((tenant, settings) -> {
+            String username = settings.username() != null ? settings.username() : datasourceUsername;
+            String password = settings.password() != null ? settings.password() : datasourcePassword;
+            DataSource pool = createPool("auth-pool-" + tenant, settings.url(), username, password,
+                    settings.maximumPoolSize(), minimumIdle, false, meterRegistry);
+            dedicated.put(tenant, pool);
+            if (flywayEnabled) {
+                TenantMigrations.migrate(tenant, pool, settings.url(), flywayLocations, flywayBaselineOnMigrate);
+            }
+        });
+        TenancyProperties.SharedPool sharedPool = tenancyProperties.sharedPool();
+        return new TenantRoutingDataSource(routingDataSource, dedicated,
+                sharedPool.maxConnectionsPerTenant(), sharedPool.acquireTimeoutMs());
+    }
+
+    // The lazy proxy defers fetching a connection until the first statement, by which point the
+    // transaction's read-only flag is known and the routing can pick a replica
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(TenantRoutingDataSource tenantRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(tenantRoutingDataSource);
+    }
+
+    private DataSource createPool(String poolName, String url, String username, String password,
+                                  int maxPoolSize, int minIdle, boolean readOnly,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(datasourceUrl);
-        config.setUsername(datasourceUsername);
-        config.setPassword(datasourcePassword);
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
         config.setDriverClassName(driverClassName);
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(20000);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(minIdle, maxPoolSize));
+        config.setConnectionTimeout(connectionTimeoutMillis);
         config.setIdleTimeout(300000);
         config.setMaxLifetime(1200000);
         config.setAutoCommit(true);
+        config.setReadOnly(readOnly);
+        // Publishes hikaricp.connections.* including acquire (pool wait) and usage timings
+        meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
         
         return new HikariDataSource(config);
     }
@@ -61,9 +164,15 @@ public class DataSourceConfig {
         em.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
         
         Map<String, Object> jpaProperties = new HashMap<>();
-        jpaProperties.put("hibernate.hbm2ddl.auto", "update");
+        // Flyway owns the schema (db/migration/{vendor}); Hibernate only checks the mapping matches it
+        jpaProperties.put("hibernate.hbm2ddl.auto", "validate");
         jpaProperties.put("hibernate.show_sql", "false");
         jpaProperties.put("hibernate.format_sql", "false");
+        jpaProperties.put("hibernate.jdbc.batch_size", "50");
+        jpaProperties.put("hibernate.order_inserts", "true");
+        // Round in-lists up to a power of two so batched lookups reuse a few statement shapes
+        jpaProperties.put("hibernate.query.in_clause_parameter_padding", "true");
+        jpaProperties.put("hibernate.tenant_identifier_resolver", new TenantIdentifierResolver());
         em.setJpaPropertyMap(jpaProperties);
         
         return em;
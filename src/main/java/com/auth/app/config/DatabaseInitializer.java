@@ -4,7 +4,7 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class DatabaseInitializer {
-    // Database creation is now handled by Hibernate with ddl-auto=create-drop
+    // Tables are created by the Flyway migrations in db/migration/{vendor}; Hibernate only validates them
     // MSSQL Docker container must have authdb created by init.sql script
 }
 
@@ -0,0 +1,41 @@
+package com.auth.app.config;
+
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.session.NearCacheJdbcSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Replaces the container's in-memory HttpSession with the shared JDBC store when
+ * {@code auth.session.store=jdbc}, so any node can serve any request.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "auth.session.store", havingValue = "jdbc")
+public class JdbcSessionStoreConfig {
+
+    // Pending last-access updates are flushed on shutdown, so sessions don't expire early after a
+    // redeploy. Every tenant's sessions live in the primary pool, past tenant routing: the scheduled
+    // flush and purge run outside any tenant, and sessions shouldn't use up a tenant's connections
+    @Bean(destroyMethod = "flush")
+    public NearCacheJdbcSessionRepository sessionRepository(
+            ReadWriteRoutingDataSource routingDataSource,
+            @Value("${server.servlet.session.timeout:1800}") String sessionTimeout,
+            @Value("${auth.session.jdbc.near-cache-ttl-ms:2000}") long nearCacheTtlMillis,
+            @Value("${auth.session.jdbc.near-cache-max-size:10000}") int nearCacheMaxSize,
+            @Value("${auth.session.jdbc.touch-interval-seconds:60}") long touchIntervalSeconds) {
+        return new NearCacheJdbcSessionRepository(
+                routingDataSource,
+                DurationStyle.detectAndParse(sessionTimeout, ChronoUnit.SECONDS),
+                Duration.ofMillis(nearCacheTtlMillis),
+                nearCacheMaxSize,
+                Duration.ofSeconds(touchIntervalSeconds));
+    }
+}
@@ -0,0 +1,96 @@
+package com.auth.app.config;
+
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Brings a database that hbm2ddl created before the migrations existed onto them. Its users table
+ * cannot simply be baselined: the id is an IDENTITY column, which users_seq cannot feed, the unique
+ * constraints carry Hibernate's generated {@code UK_} names rather than the ones sign-up reports
+ * duplicates by, and the later columns are missing. So the users are copied aside and the table
+ * dropped, every migration runs from the start, and the users are copied back with their ids,
+ * users_seq restarting past the highest of them.
+ */
+@Slf4j
+@Component
+public class LegacySchemaUpgrade implements FlywayMigrationStrategy {
+
+    private static final String LEGACY_TABLE = "legacy_users";
+    // What the entity mapped before the migrations; later columns take their defaults
+    private static final String COLUMNS = "id, username, email, password, enabled, description, createdAt";
+    // User.id's allocationSize: Hibernate's pooled optimizer may use ids up to a block below the value it reads
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        migrate(flyway, TenantContext.DEFAULT_TENANT);
+    }
+
+    /**
+     * Applies {@code flyway}'s migrations, moving an hbm2ddl users table out of their way first and
+     * restoring its rows for {@code tenant} afterwards.
+     */
+    static void migrate(Flyway flyway, String tenant) {
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (!tableExists(dataSource, flyway.getConfiguration().getTable()) && tableExists(dataSource, "users")) {
+            log.info("Moving the users table created by hbm2ddl aside before migrating");
+            jdbcTemplate.execute(isSqlServer(dataSource)
+                    ? "select " + COLUMNS + " into " + LEGACY_TABLE + " from users"
+                    : "create table " + LEGACY_TABLE + " as select " + COLUMNS + " from users");
+            jdbcTemplate.execute("drop table users");
+            // Left by builds that mapped them before the migrations; sessions are short-lived anyway
+            jdbcTemplate.execute("drop table if exists http_sessions");
+            jdbcTemplate.execute("drop sequence if exists users_seq");
+        }
+        flyway.migrate();
+        // Checked apart from the move, so a start that stopped half way finishes the copy
+        if (tableExists(dataSource, LEGACY_TABLE)) {
+            restore(jdbcTemplate, tenant);
+        }
+    }
+
+    private static void restore(JdbcTemplate jdbcTemplate, String tenant) {
+        int restored = jdbcTemplate.update("insert into users (" + COLUMNS + ", tenantId, failedLoginAttempts) "
+                + "select " + COLUMNS + ", ?, 0 from " + LEGACY_TABLE + " l "
+                + "where not exists (select 1 from users u where u.id = l.id)", tenant);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        if (maxId != null) {
+            jdbcTemplate.execute("alter sequence users_seq restart with " + (maxId + ALLOCATION_SIZE));
+        }
+        jdbcTemplate.execute("drop table " + LEGACY_TABLE);
+        log.info("Restored {} users from the hbm2ddl schema; users_seq continues after id {}", restored, maxId);
+    }
+
+    private static boolean tableExists(DataSource dataSource, String table) {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                     null, new String[]{"TABLE"})) {
+            while (tables.next()) {
+                if (table.equalsIgnoreCase(tables.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the tables of the schema", e);
+        }
+    }
+
+    private static boolean isSqlServer(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().contains("SQL Server");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the database product", e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.auth.app.config;
+
+import com.auth.app.audit.AuditLog;
+import com.auth.app.entity.User;
+import com.auth.app.service.AuthMetrics;
+import com.auth.app.service.UserCache;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sends sign-up validation, sign-in and dashboard requests through the local server before the
+ * node reports ready, so the JIT has compiled the login path by the time the load balancer routes
+ * to it. Boot only publishes {@code ACCEPTING_TRAFFIC} once this listener returns, and the
+ * {@code warmup} health indicator holds the readiness group until it has finished.
+ *
+ * <p>Sign-ins use a synthetic user that only exists in the user cache, so nothing is written to
+ * the users table. Warmup requests carry a per-boot token that exempts them from the login
+ * throttle, and {@code auth.*} metrics and the audit log are paused while they run.
+ */
+@Slf4j
+@Component
+public class StartupWarmup {
+
+    static final String TOKEN_HEADER = "X-Auth-Warmup";
+
+    private static final long SYNTHETIC_USER_ID = -1L;
+    private static final String SYNTHETIC_PASSWORD = "warmup-password";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final AuthMetrics authMetrics;
+    private final AuditLog auditLog;
+    private final int iterations;
+    private final long maxDurationMillis;
+    private final String token = UUID.randomUUID().toString();
+
+    private volatile boolean complete;
+    private volatile int completedIterations;
+    private volatile long durationMillis;
+
+    public StartupWarmup(PasswordEncoder passwordEncoder,
+                         UserCache userCache,
+                         AuthMetrics authMetrics,
+                         AuditLog auditLog,
+                         @Value("${auth.warmup.enabled:true}") boolean enabled,
+                         @Value("${auth.warmup.iterations:200}") int iterations,
+                         @Value("${auth.warmup.max-duration-seconds:60}") long maxDurationSeconds) {
+        if (iterations < 0 || maxDurationSeconds < 0) {
+            throw new IllegalArgumentException("auth.warmup.iterations and max-duration-seconds must not be negative");
+        }
+        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.authMetrics = authMetrics;
+        this.auditLog = auditLog;
+        this.iterations = iterations;
+        this.maxDurationMillis = maxDurationSeconds * 1000;
+        this.complete = !enabled || iterations == 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (complete) {
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+            complete = true;
+            return;
+        }
+        long start = System.nanoTime();
+        User user = syntheticUser();
+        authMetrics.pauseRecording();
+        auditLog.pauseRecording();
+        try (HttpClient client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build()) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+            userCache.put(user);
+            long deadline = start + maxDurationMillis * 1_000_000;
+            while (completedIterations < iterations && System.nanoTime() - deadline < 0) {
+                runIteration(client, baseUrl, user.getUsername());
+                completedIterations++;
+            }
+            log.info("Warmed up the login path with {} iterations in {} ms",
+                    completedIterations, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // Only costs the first real requests their head start
+            log.warn("Startup warmup stopped after {} iterations: {}", completedIterations, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            userCache.evict(SYNTHETIC_USER_ID);
+            authMetrics.resumeRecording();
+            auditLog.resumeRecording();
+            durationMillis = (System.nanoTime() - start) / 1_000_000;
+            complete = true;
+        }
+    }
+
+    /**
+     * Whether {@code request} was sent by this warmup: it carries this boot's token and came
+     * from the loopback interface.
+     */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        if (complete || !token.equals(request.getHeader(TOKEN_HEADER))) {
+            return false;
+        }
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private void runIteration(HttpClient client, String baseUrl, String username)
+            throws IOException, InterruptedException {
+        send(client, get(baseUrl + "/signup"));
+        // Rejected by validation before any database access
+        send(client, post(baseUrl + "/signup", "username", username, "email", "warmup@example.invalid",
+                "password", "x"));
+        send(client, get(baseUrl + "/login"));
+        send(client, post(baseUrl + "/login", "username", "warmup-unknown-" + UUID.randomUUID(),
+                "password", SYNTHETIC_PASSWORD));
+
+        HttpResponse<Void> login = send(client, post(baseUrl + "/login", "username", username,
+                "password", SYNTHETIC_PASSWORD));
+        String cookies = login.headers().allValues("Set-Cookie").stream()
+                .map(cookie -> cookie.split(";", 2)[0])
+                .collect(Collectors.joining("; "));
+        if (cookies.isEmpty()) {
+            return;
+        }
+        send(client, get(baseUrl + "/dashboard").header("Cookie", cookies));
+        send(client, get(baseUrl + "/logout").header("Cookie", cookies));
+    }
+
+    private User syntheticUser() {
+        return User.builder()
+                .id(SYNTHETIC_USER_ID)
+                .username("warmup-" + UUID.randomUUID())
+                .email("warmup@example.invalid")
+                .password(passwordEncoder.encode(SYNTHETIC_PASSWORD))
+                .description("Startup warmup")
+                .enabled(true)
+                .build();
+    }
+
+    private HttpRequest.Builder get(String url) {
+        return request(url).GET();
+    }
+
+    private HttpRequest.Builder post(String url, String... fields) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < fields.length; i += 2) {
+            if (i > 0) {
+                form.append('&');
+            }
+            form.append(fields[i]).append('=').append(URLEncoder.encode(fields[i + 1], StandardCharsets.UTF_8));
+        }
+        return request(url)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.toString()));
+    }
+
+    private HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header(TOKEN_HEADER, token);
+    }
+
+    private static HttpResponse<Void> send(HttpClient client, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,29 @@
+package com.auth.app.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.jdbc.DatabaseDriver;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+/**
+ * Applies the same Flyway migrations Boot runs on the primary to a tenant's dedicated database,
+ * so every database a tenant can be routed to has the schema Hibernate validates against.
+ */
+final class TenantMigrations {
+
+    private TenantMigrations() {
+    }
+
+    static void migrate(String tenant, DataSource dataSource, String url, String[] locations, boolean baselineOnMigrate) {
+        // Boot expands {vendor} for the primary; do the same from the tenant's URL
+        String vendor = DatabaseDriver.fromJdbcUrl(url).getId();
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(Arrays.stream(locations).map(location -> location.replace("{vendor}", vendor)).toArray(String[]::new))
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion("0")
+                .load();
+        LegacySchemaUpgrade.migrate(flyway, tenant);
+    }
+}
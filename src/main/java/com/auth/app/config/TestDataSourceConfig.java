@@ -1,5 +1,10 @@
 package com.auth.app.config;
 
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.datasource.TenantRoutingDataSource;
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantIdentifierResolver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -10,22 +15,66 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
 @EnableTransactionManagement
 @Profile("test")  // Only load this config in test profile
 public class TestDataSourceConfig {
+
+    // A second H2 database can stand in for a replica; nothing replicates into it
+    @Value("${auth.datasource.replica.urls:}")
+    private String[] replicaUrls;
+
+    @Value("${auth.datasource.replica.health-check-interval-ms:5000}")
+    private long replicaHealthCheckIntervalMillis;
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] flywayLocations;
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (!url.isBlank()) {
+                replicas.put("replica-" + (replicas.size() + 1), h2DataSource(url.trim()));
+            }
+        }
+        return new ReadWriteRoutingDataSource(
+                h2DataSource("jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"),
+                replicas, replicaHealthCheckIntervalMillis);
+    }
     
+    // Tenant databases are further in-memory H2 databases, migrated like the primary
+    @Bean(destroyMethod = "close")
+    public TenantRoutingDataSource tenantRoutingDataSource(ReadWriteRoutingDataSource routingDataSource,
+                                                           TenancyProperties tenancyProperties) {
+        Map<String, DataSource> dedicated = new LinkedHashMap<>();
+        tenancyProperties.datasources().forEach((tenant, settings) -> {
+            DataSource dataSource = h2DataSource(settings.url());
+            TenantMigrations.migrate(tenant, dataSource, settings.url(), flywayLocations, false);
+            dedicated.put(tenant, dataSource);
+        });
+        TenancyProperties.SharedPool sharedPool = tenancyProperties.sharedPool();
+        return new TenantRoutingDataSource(routingDataSource, dedicated,
+                sharedPool.maxConnectionsPerTenant(), sharedPool.acquireTimeoutMs());
+    }
+
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(TenantRoutingDataSource tenantRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(tenantRoutingDataSource);
+    }
+
+    private static DataSource h2DataSource(String url) {
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName("org.h2.Driver");
-        dataSource.setUrl("jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        dataSource.setUrl(url);
         dataSource.setUsername("sa");
         dataSource.setPassword("");
         return dataSource;
@@ -41,9 +90,14 @@ public class TestDataSourceConfig {
         
         Map<String, Object> jpaProperties = new HashMap<>();
         jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
-        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.put("hibernate.hbm2ddl.auto", "validate");
         jpaProperties.put("hibernate.show_sql", "false");
         jpaProperties.put("hibernate.format_sql", "false");
+        jpaProperties.put("hibernate.jdbc.batch_size", "50");
+        jpaProperties.put("hibernate.order_inserts", "true");
+        // Round in-lists up to a power of two so batched lookups reuse a few statement shapes
+        jpaProperties.put("hibernate.query.in_clause_parameter_padding", "true");
+        jpaProperties.put("hibernate.tenant_identifier_resolver", new TenantIdentifierResolver());
         em.setJpaPropertyMap(jpaProperties);
         
         return em;
@@ -0,0 +1,45 @@
+package com.auth.app.config;
+
+import com.auth.app.service.UserImportReader;
+import com.auth.app.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line bulk import, e.g.
+ * {@code java -jar app.jar --auth.import.file=users.csv --spring.main.web-application-type=none}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.import.file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private final UserImportService userImportService;
+
+    @Value("${auth.import.file}")
+    private String file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Path.of(file);
+        UserImportReader.Format format = UserImportReader.Format.fromFileName(path.getFileName().toString());
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             UserImportReader rows = UserImportReader.open(format, reader)) {
+            UserImportService.ImportReport report = userImportService.importUsers(rows);
+            report.failures().forEach(failure -> log.warn("Row {} skipped: {}", failure.row(), failure.reason()));
+            log.info("Import of {} finished: {} processed, {} imported, {} failed, {} rows/s",
+                    path, report.processed(), report.imported(), report.failed(), Math.round(report.rowsPerSecond()));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.auth.app.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} until the startup warmup has finished. It is part of the
+ * readiness group, so {@code /actuator/health/readiness} fails while the login path is cold.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmup startupWarmup;
+
+    @Override
+    public Health health() {
+        Health.Builder health = startupWarmup.isComplete() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("iterations", startupWarmup.getCompletedIterations())
+                .withDetail("durationMillis", startupWarmup.getDurationMillis())
+                .build();
+    }
+}
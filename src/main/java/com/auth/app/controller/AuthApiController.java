@@ -0,0 +1,237 @@
+package com.auth.app.controller;
+
+import com.auth.app.audit.AuditLog;
+import com.auth.app.audit.AuthEventType;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserProfile;
+import com.auth.app.service.AccountLockout;
+import com.auth.app.service.AuthMetrics;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.LoginThrottle;
+import com.auth.app.service.PasswordHashingExecutor;
+import com.auth.app.session.SessionTokenService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * JSON counterpart of {@link AuthController} for mobile and service clients. Sign-in returns a
+ * signed bearer token from {@link SessionTokenService} instead of setting a session, and every
+ * other call is authenticated by that token, so the API never creates server-side session state.
+ * Only {@code application/json} is produced and accepted.
+ */
+@RestController
+@RequestMapping(path = "/api/v1", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class AuthApiController {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthService authService;
+    private final SessionTokenService sessionTokenService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final AuthMetrics authMetrics;
+    private final LoginThrottle loginThrottle;
+    private final AccountLockout accountLockout;
+    private final AuditLog auditLog;
+
+    @PostMapping(path = "/login", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<Object>> login(@RequestBody LoginRequest body, HttpServletRequest request) {
+        Timer.Sample sample = authMetrics.start();
+        if (body.username() == null || body.username().trim().isEmpty()
+                || body.password() == null || body.password().isEmpty()) {
+            authMetrics.recordRequest(sample, "api_login", AuthMetrics.VALIDATION_ERROR);
+            return CompletableFuture.completedFuture(error(HttpStatus.BAD_REQUEST, "Username and password are required"));
+        }
+
+        LoginThrottle.Decision decision = loginThrottle.tryAcquire(body.username(), request.getRemoteAddr());
+        if (!decision.allowed()) {
+            authMetrics.recordHashSaved(decision.limitedBy());
+            authMetrics.recordRequest(sample, "api_login", "throttled");
+            return CompletableFuture.completedFuture(tooManyAttempts(decision.retryAfterSeconds()));
+        }
+
+        Optional<User> user = authService.findByUsername(body.username().trim());
+        if (user.isEmpty()) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, null, body.username().trim());
+            authMetrics.recordRequest(sample, "api_login", AuthMetrics.BAD_CREDENTIALS);
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+        long lockedForSeconds = accountLockout.lockedForSeconds(user.get());
+        if (lockedForSeconds > 0) {
+            authMetrics.recordHashSaved("locked");
+            authMetrics.recordRequest(sample, "api_login", "locked");
+            return CompletableFuture.completedFuture(tooManyAttempts(lockedForSeconds));
+        }
+
+        try {
+            return authService.validatePasswordAsync(user.get(), body.password())
+                    .thenApply(valid -> {
+                        if (!valid) {
+                            accountLockout.recordFailure(user.get());
+                            authMetrics.recordRequest(sample, "api_login", AuthMetrics.BAD_CREDENTIALS);
+                            return invalidCredentials();
+                        }
+                        if (!authService.isVerified(user.get())) {
+                            authMetrics.recordRequest(sample, "api_login", "unverified");
+                            return error(HttpStatus.FORBIDDEN, "Email address not confirmed");
+                        }
+                        accountLockout.recordSuccess(user.get());
+                        String token = sessionTokenService.issue(user.get().getId(), user.get().getUsername());
+                        authMetrics.recordRequest(sample, "api_login", AuthMetrics.SUCCESS);
+                        return ResponseEntity.ok((Object) new TokenResponse(token, "Bearer",
+                                sessionTokenService.getTimeToLiveMillis() / 1000));
+                    })
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            authMetrics.recordRequest(sample, "api_login", AuthMetrics.ERROR);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            authMetrics.recordRequest(sample, "api_login", "rejected");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()))
+                    .body(Map.of("error", "Too many sign-in attempts right now, please try again shortly")));
+        }
+    }
+
+    @PostMapping(path = "/signup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public ProfileResponse signup(@RequestBody SignupRequest body) {
+        Timer.Sample sample = authMetrics.start();
+        try {
+            User user = authService.signUp(body.username(), body.email(), body.password(), body.description());
+            authMetrics.recordRequest(sample, "api_signup", AuthMetrics.SUCCESS);
+            return new ProfileResponse(user.getId(), user.getUsername(), user.getDescription());
+        } catch (RuntimeException e) {
+            authMetrics.recordRequest(sample, "api_signup", AuthMetrics.outcomeOf(e));
+            throw e;
+        }
+    }
+
+    @GetMapping("/profile")
+    public ResponseEntity<Object> profile(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Timer.Sample sample = authMetrics.start();
+        Optional<SessionTokenService.SessionToken> token = bearerToken(authorization);
+        if (token.isEmpty()) {
+            authMetrics.recordRequest(sample, "api_profile", "unauthenticated");
+            return unauthorized();
+        }
+        Optional<UserProfile> profile = authService.findProfile(token.get().username());
+        if (profile.isEmpty()) {
+            authMetrics.recordRequest(sample, "api_profile", "not_found");
+            return error(HttpStatus.NOT_FOUND, "User not found");
+        }
+        authMetrics.recordRequest(sample, "api_profile", AuthMetrics.SUCCESS);
+        return ResponseEntity.ok(ProfileResponse.of(profile.get()));
+    }
+
+    @PatchMapping(path = "/profile", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> updateProfile(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                @RequestBody DescriptionUpdate body) {
+        Timer.Sample sample = authMetrics.start();
+        Optional<SessionTokenService.SessionToken> token = bearerToken(authorization);
+        if (token.isEmpty()) {
+            authMetrics.recordRequest(sample, "api_settings", "unauthenticated");
+            return unauthorized();
+        }
+        try {
+            if (!authService.updateDescription(token.get().userId(), body.description())) {
+                authMetrics.recordRequest(sample, "api_settings", "not_found");
+                return error(HttpStatus.NOT_FOUND, "User not found");
+            }
+        } catch (RuntimeException e) {
+            authMetrics.recordRequest(sample, "api_settings", AuthMetrics.outcomeOf(e));
+            throw e;
+        }
+        authMetrics.recordRequest(sample, "api_settings", AuthMetrics.SUCCESS);
+        return ResponseEntity.ok(new ProfileResponse(token.get().userId(), token.get().username(), body.description()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Object> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Timer.Sample sample = authMetrics.start();
+        bearerToken(authorization).ifPresent(sessionTokenService::revoke);
+        authMetrics.recordRequest(sample, "api_logout", AuthMetrics.SUCCESS);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> hashingPoolFull(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()))
+                .body(Map.of("error", "Too many requests right now, please try again shortly"));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    private Optional<SessionTokenService.SessionToken> bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return Optional.empty();
+        }
+        return sessionTokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+    }
+
+    private static ResponseEntity<Object> invalidCredentials() {
+        return error(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+    }
+
+    private static ResponseEntity<Object> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(Map.of("error", "A valid bearer token is required"));
+    }
+
+    private static ResponseEntity<Object> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of("error", "Too many sign-in attempts, please try again later"));
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+
+    public record LoginRequest(String username, String password) {
+    }
+
+    public record SignupRequest(String username, String email, String password, String description) {
+    }
+
+    public record DescriptionUpdate(String description) {
+    }
+
+    public record TokenResponse(String token, String tokenType, long expiresIn) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ProfileResponse(Long id, String username, String description) {
+
+        static ProfileResponse of(UserProfile profile) {
+            return new ProfileResponse(profile.id(), profile.username(), profile.description());
+        }
+    }
+}
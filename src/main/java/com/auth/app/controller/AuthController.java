@@ -1,15 +1,32 @@
 package com.auth.app.controller;
 
+import com.auth.app.audit.AuditLog;
+import com.auth.app.audit.AuthEventType;
+import com.auth.app.config.StartupWarmup;
 import com.auth.app.entity.User;
+import com.auth.app.repository.UserProfile;
+import com.auth.app.service.AccountLockout;
+import com.auth.app.service.AuthMetrics;
 import com.auth.app.service.AuthService;
-import jakarta.servlet.http.HttpSession;
+import com.auth.app.service.EmailVerification;
+import com.auth.app.service.LoginThrottle;
+import com.auth.app.service.PasswordHashingExecutor;
+import com.auth.app.session.LoginSessions;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 @RequiredArgsConstructor
@@ -17,6 +34,15 @@ public class AuthController {
 
     private final AuthService authService;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginSessions loginSessions;
+    private final AuthMetrics authMetrics;
+    private final LoginThrottle loginThrottle;
+    private final AccountLockout accountLockout;
+    private final AuditLog auditLog;
+    private final StartupWarmup startupWarmup;
+    private final PrerenderedPages prerenderedPages;
+    private final EmailVerification emailVerification;
 
     @GetMapping("/")
     public String index() {
@@ -24,40 +50,97 @@ public class AuthController {
     }
 
     @GetMapping("/login")
-    public String loginPage() {
-        return "auth/login";
+    public ResponseEntity<byte[]> loginPage(HttpServletRequest request, HttpServletResponse response) {
+        return prerenderedPages.serve("auth/login", request, response);
     }
 
     @PostMapping("/login")
-    public String login(@RequestParam String username, 
-                        @RequestParam String password,
-                        HttpSession session,
-                        Model model) {
+    public CompletableFuture<String> login(@RequestParam String username,
+                                           @RequestParam String password,
+                                           HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           Model model) {
+        Timer.Sample sample = authMetrics.start();
         // Validate inputs
         if (username == null || username.trim().isEmpty()) {
             model.addAttribute("error", "Username is required");
-            return "auth/login";
+            authMetrics.recordRequest(sample, "login", AuthMetrics.VALIDATION_ERROR);
+            return CompletableFuture.completedFuture("auth/login");
         }
         if (password == null || password.isEmpty()) {
             model.addAttribute("error", "Password is required");
-            return "auth/login";
+            authMetrics.recordRequest(sample, "login", AuthMetrics.VALIDATION_ERROR);
+            return CompletableFuture.completedFuture("auth/login");
+        }
+
+        // Throttled attempts stop here, before the user lookup and the password hash
+        LoginThrottle.Decision decision = startupWarmup.isWarmupRequest(request)
+                ? LoginThrottle.Decision.ALLOWED
+                : loginThrottle.tryAcquire(username, request.getRemoteAddr());
+        if (!decision.allowed()) {
+            authMetrics.recordHashSaved(decision.limitedBy());
+            authMetrics.recordRequest(sample, "login", "throttled");
+            return CompletableFuture.completedFuture(tooManyAttempts(response, model, decision.retryAfterSeconds()));
         }
         
         Optional<User> user = authService.findByUsername(username.trim());
-
-        if (user.isPresent() && authService.validatePassword(password, user.get().getPassword())) {
-            session.setAttribute("userId", user.get().getId());
-            session.setAttribute("username", user.get().getUsername());
-            return "redirect:/dashboard";
-        } else {
+        if (user.isEmpty()) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, null, username.trim());
             model.addAttribute("error", "Invalid username or password");
-            return "auth/login";
+            authMetrics.recordRequest(sample, "login", AuthMetrics.BAD_CREDENTIALS);
+            return CompletableFuture.completedFuture("auth/login");
+        }
+        long lockedForSeconds = accountLockout.lockedForSeconds(user.get());
+        if (lockedForSeconds > 0) {
+            authMetrics.recordHashSaved("locked");
+            authMetrics.recordRequest(sample, "login", "locked");
+            return CompletableFuture.completedFuture(tooManyAttempts(response, model, lockedForSeconds));
+        }
+
+        // BCrypt runs on the hashing pool so the request thread is released while it works
+        try {
+            return authService.validatePasswordAsync(user.get(), password)
+                    .thenApply(valid -> {
+                        if (valid && !authService.isVerified(user.get())) {
+                            model.addAttribute("error", "Please confirm your email address before signing in");
+                            authMetrics.recordRequest(sample, "login", "unverified");
+                            return "auth/login";
+                        }
+                        if (valid) {
+                            accountLockout.recordSuccess(user.get());
+                            loginSessions.signIn(request, response, user.get());
+                            authMetrics.recordRequest(sample, "login", AuthMetrics.SUCCESS);
+                            return "redirect:/dashboard";
+                        }
+                        accountLockout.recordFailure(user.get());
+                        model.addAttribute("error", "Invalid username or password");
+                        authMetrics.recordRequest(sample, "login", AuthMetrics.BAD_CREDENTIALS);
+                        return "auth/login";
+                    })
+                    .whenComplete((view, error) -> {
+                        if (error != null) {
+                            authMetrics.recordRequest(sample, "login", AuthMetrics.ERROR);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()));
+            model.addAttribute("error", "Too many sign-in attempts right now, please try again shortly");
+            authMetrics.recordRequest(sample, "login", "rejected");
+            return CompletableFuture.completedFuture("auth/login");
         }
     }
 
+    private String tooManyAttempts(HttpServletResponse response, Model model, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        model.addAttribute("error", "Too many sign-in attempts, please try again later");
+        return "auth/login";
+    }
+
     @GetMapping("/signup")
-    public String signupPage() {
-        return "auth/signup";
+    public ResponseEntity<byte[]> signupPage(HttpServletRequest request, HttpServletResponse response) {
+        return prerenderedPages.serve("auth/signup", request, response);
     }
 
     @PostMapping("/signup")
@@ -65,72 +148,115 @@ public class AuthController {
                          @RequestParam String email,
                          @RequestParam String password,
                          @RequestParam(required = false) String description,
+                         HttpServletResponse response,
                          Model model) {
+        Timer.Sample sample = authMetrics.start();
         try {
             authService.signUp(username, email, password, description);
+            authMetrics.recordRequest(sample, "signup", AuthMetrics.SUCCESS);
+            if (emailVerification.isEnabled()) {
+                model.addAttribute("success", "Account created. Check your email for a link to activate it.");
+                return "auth/login";
+            }
             return "redirect:/login";
         } catch (IllegalArgumentException e) {
             model.addAttribute("error", e.getMessage());
+            authMetrics.recordRequest(sample, "signup", AuthMetrics.VALIDATION_ERROR);
             return "auth/signup";
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()));
+            model.addAttribute("error", "Too many sign-ups right now, please try again shortly");
+            authMetrics.recordRequest(sample, "signup", "rejected");
+            return "auth/signup";
+        } catch (RuntimeException e) {
+            authMetrics.recordRequest(sample, "signup", AuthMetrics.ERROR);
+            throw e;
         }
     }
 
+    @GetMapping("/verify")
+    public String verify(@RequestParam(required = false) String token, Model model) {
+        Timer.Sample sample = authMetrics.start();
+        if (emailVerification.verify(token).isPresent()) {
+            model.addAttribute("success", "Your email address is confirmed. You can sign in now.");
+            authMetrics.recordRequest(sample, "verify", AuthMetrics.SUCCESS);
+        } else {
+            model.addAttribute("error", "This link is invalid, expired or already used");
+            authMetrics.recordRequest(sample, "verify", "invalid_token");
+        }
+        return "auth/login";
+    }
+
     @GetMapping("/dashboard")
-    public String dashboard(HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) {
+    public String dashboard(HttpServletRequest request, Model model) {
+        Timer.Sample sample = authMetrics.start();
+        Optional<LoginSessions.SessionUser> sessionUser = loginSessions.currentUser(request);
+        if (sessionUser.isEmpty()) {
+            authMetrics.recordRequest(sample, "dashboard", "unauthenticated");
             return "redirect:/login";
         }
-        Optional<User> user = authService.findByUsername(username);
-        if (user.isPresent()) {
-            model.addAttribute("username", username);
-            model.addAttribute("description", user.get().getDescription());
+        Optional<UserProfile> profile = authService.findProfile(sessionUser.get().username());
+        if (profile.isPresent()) {
+            model.addAttribute("username", profile.get().username());
+            model.addAttribute("description", profile.get().description());
         }
+        authMetrics.recordRequest(sample, "dashboard", AuthMetrics.SUCCESS);
         return "dashboard";
     }
 
     @GetMapping("/settings")
-    public String settingsPage(HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) {
+    public String settingsPage(HttpServletRequest request, Model model) {
+        Timer.Sample sample = authMetrics.start();
+        Optional<LoginSessions.SessionUser> sessionUser = loginSessions.currentUser(request);
+        if (sessionUser.isEmpty()) {
+            authMetrics.recordRequest(sample, "settings_page", "unauthenticated");
             return "redirect:/login";
         }
-        Optional<User> user = authService.findByUsername(username);
-        if (user.isPresent()) {
-            model.addAttribute("description", user.get().getDescription());
+        Optional<UserProfile> profile = authService.findProfile(sessionUser.get().username());
+        if (profile.isPresent()) {
+            model.addAttribute("description", profile.get().description());
+            authMetrics.recordRequest(sample, "settings_page", AuthMetrics.SUCCESS);
         } else {
             model.addAttribute("error", "User not found");
+            authMetrics.recordRequest(sample, "settings_page", "not_found");
         }
         return "auth/settings";
     }
 
     @PostMapping("/settings")
     public String saveSettings(@RequestParam String description,
-                               HttpSession session,
+                               HttpServletRequest request,
                                Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) {
+        Timer.Sample sample = authMetrics.start();
+        Optional<LoginSessions.SessionUser> sessionUser = loginSessions.currentUser(request);
+        if (sessionUser.isEmpty()) {
+            authMetrics.recordRequest(sample, "settings", "unauthenticated");
             return "redirect:/login";
         }
         try {
-            Optional<User> user = authService.findByUsername(username);
-            if (user.isPresent()) {
-                user.get().setDescription(description);
-                authService.saveUser(user.get());
-            } else {
+            if (!authService.updateDescription(sessionUser.get().userId(), description)) {
                 model.addAttribute("error", "User not found");
+                authMetrics.recordRequest(sample, "settings", "not_found");
                 return "auth/settings";
             }
         } catch (IllegalArgumentException e) {
             model.addAttribute("error", e.getMessage());
+            authMetrics.recordRequest(sample, "settings", AuthMetrics.VALIDATION_ERROR);
             return "auth/settings";
+        } catch (RuntimeException e) {
+            authMetrics.recordRequest(sample, "settings", AuthMetrics.ERROR);
+            throw e;
         }
+        authMetrics.recordRequest(sample, "settings", AuthMetrics.SUCCESS);
         return "redirect:/dashboard";
     }
 
     @GetMapping("/logout")
-    public String logout(HttpSession session) {
-        session.invalidate();
+    public String logout(HttpServletRequest request, HttpServletResponse response) {
+        Timer.Sample sample = authMetrics.start();
+        loginSessions.signOut(request, response);
+        authMetrics.recordRequest(sample, "logout", AuthMetrics.SUCCESS);
         return "redirect:/login";
     }
 }
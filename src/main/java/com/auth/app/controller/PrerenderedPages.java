@@ -0,0 +1,107 @@
+package com.auth.app.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves views that have nothing per-request in them, like the empty sign-in form, from bytes
+ * rendered once by the regular Thymeleaf view. Each page is kept plain and gzipped with an ETag
+ * for each, so a browser revalidating its copy gets a 304 and everyone else gets the stored
+ * bytes without a render. With the template cache off (development) every request renders afresh.
+ */
+@Component
+public class PrerenderedPages {
+
+    private static final MediaType HTML = MediaType.parseMediaType("text/html;charset=UTF-8");
+
+    private final ViewResolver viewResolver;
+    private final boolean cached;
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+
+    public PrerenderedPages(@Qualifier("thymeleafViewResolver") ViewResolver viewResolver,
+                            @Value("${spring.thymeleaf.cache:true}") boolean cached) {
+        this.viewResolver = viewResolver;
+        this.cached = cached;
+    }
+
+    public ResponseEntity<byte[]> serve(String viewName, HttpServletRequest request, HttpServletResponse response) {
+        Page page = cached ? pages.get(viewName) : null;
+        if (page == null) {
+            page = render(viewName, request, response);
+            if (cached) {
+                pages.putIfAbsent(viewName, page);
+            }
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(HTML)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request)) {
+            return ok.eTag(page.etag() + "-gz").header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzipped());
+        }
+        return ok.eTag(page.etag()).body(page.html());
+    }
+
+    private Page render(String viewName, HttpServletRequest request, HttpServletResponse response) {
+        // Rendered through the real response so resource URLs get their content versions, but
+        // captured rather than written
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        try {
+            View view = viewResolver.resolveViewName(viewName, request.getLocale());
+            if (view == null) {
+                throw new IllegalStateException("No view named " + viewName);
+            }
+            view.render(Collections.emptyMap(), request, capture);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to render " + viewName, e);
+        }
+        byte[] html = capture.getContentAsByteArray();
+        return new Page(html, gzip(html), DigestUtils.md5DigestAsHex(html));
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 3);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private record Page(byte[] html, byte[] gzipped, String etag) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.auth.app.controller;
+
+import com.auth.app.service.UserDirectoryService;
+import com.auth.app.service.UserImportReader;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+public class UserAdminController {
+
+    private final UserDirectoryService userDirectoryService;
+
+    @GetMapping
+    public UserDirectoryService.UserPage listUsers(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + UserDirectoryService.DEFAULT_PAGE_SIZE) int limit,
+                                                   @RequestParam(required = false) String order) {
+        return userDirectoryService.listUsers(UserDirectoryService.SortOrder.parse(order), cursor, limit);
+    }
+
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        // Rejected before anything is written, so a bad value still gets the 400
+        UserImportReader.Format exportFormat = UserImportReader.Format.parse(format);
+        response.setContentType(exportFormat == UserImportReader.Format.CSV ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.extension() + "\"");
+        // Written straight to the response as rows arrive; nothing is buffered beyond the writer
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        userDirectoryService.export(exportFormat, out);
+        out.flush();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
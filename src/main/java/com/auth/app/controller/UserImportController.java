@@ -0,0 +1,34 @@
+package com.auth.app.controller;
+
+import com.auth.app.service.UserImportReader;
+import com.auth.app.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public UserImportService.ImportReport importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                      HttpServletRequest request) throws IOException {
+        UserImportReader.Format format = UserImportReader.Format.fromContentType(contentType);
+        // Read straight from the request stream so the upload is never buffered in full
+        try (UserImportReader rows = UserImportReader.open(format,
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return userImportService.importUsers(rows);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.auth.app.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that keeps read-only transactions on the primary, for reads that must see a
+ * write the replicas may not have applied yet.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Runs {@code action} with every connection it opens on this thread taken from the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean outermost = PRIMARY_FORCED.get() == null;
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (outermost) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
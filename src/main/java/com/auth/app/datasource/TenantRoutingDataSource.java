@@ -0,0 +1,120 @@
+package com.auth.app.datasource;
+
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends each tenant's connections to its dedicated data source when it has one, and everyone
+ * else's to the shared one. On the shared data source a tenant may hold at most
+ * {@code maxSharedConnectionsPerTenant} connections at once, so a login spike in one tenant waits
+ * on its own quota instead of draining the pool for the others.
+ */
+@Slf4j
+public class TenantRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource shared;
+    private final Map<String, DataSource> dedicated;
+    private final int maxSharedConnectionsPerTenant;
+    private final long acquireTimeoutMillis;
+    private final Map<String, Semaphore> quotas = new ConcurrentHashMap<>();
+
+    public TenantRoutingDataSource(DataSource shared, Map<String, DataSource> dedicated,
+                                   int maxSharedConnectionsPerTenant, long acquireTimeoutMillis) {
+        this.shared = shared;
+        this.dedicated = Map.copyOf(dedicated);
+        this.maxSharedConnectionsPerTenant = maxSharedConnectionsPerTenant;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String tenant = TenantContext.current();
+        DataSource own = dedicated.get(tenant);
+        if (own != null) {
+            return own.getConnection();
+        }
+        if (maxSharedConnectionsPerTenant <= 0) {
+            return shared.getConnection();
+        }
+        Semaphore quota = quotas.computeIfAbsent(tenant, key -> new Semaphore(maxSharedConnectionsPerTenant));
+        try {
+            if (!quota.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Tenant " + tenant + " is using all "
+                        + maxSharedConnectionsPerTenant + " of its shared connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a connection", e);
+        }
+        try {
+            return releasingOnClose(shared.getConnection(), quota);
+        } catch (SQLException | RuntimeException e) {
+            quota.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Explicit credentials bypass routing, as they do for the replicas
+        return shared.getConnection(username, password);
+    }
+
+    public boolean hasDedicatedDataSource(String tenant) {
+        return dedicated.containsKey(tenant);
+    }
+
+    public Map<String, DataSource> getDedicatedDataSources() {
+        return dedicated;
+    }
+
+    /**
+     * Shared connections the tenant holds right now.
+     */
+    public int getSharedConnectionsInUse(String tenant) {
+        Semaphore quota = quotas.get(tenant);
+        return quota == null ? 0 : maxSharedConnectionsPerTenant - quota.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        dedicated.values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close tenant data source: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static Connection releasingOnClose(Connection connection, Semaphore quota) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        quota.release();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.auth.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Row layout of the shared session store. Reads and writes go through
+ * {@code NearCacheJdbcSessionRepository} with plain JDBC; the mapping exists so Hibernate validates
+ * the table the migrations create.
+ */
+@Entity
+@Table(name = "http_sessions", indexes = @Index(name = "ix_http_sessions_expiry_time", columnList = "expiry_time"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpSessionRecord {
+
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+
+    @Column(name = "creation_time", nullable = false)
+    private Long creationTime;
+
+    @Column(name = "last_access_time", nullable = false)
+    private Long lastAccessTime;
+
+    @Column(name = "max_inactive_seconds", nullable = false)
+    private Integer maxInactiveSeconds;
+
+    @Column(name = "expiry_time", nullable = false)
+    private Long expiryTime;
+
+    @Column(name = "attributes", length = 1_048_576)
+    private byte[] attributes;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -2,25 +2,57 @@ package com.auth.app.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
+
+import java.text.Normalizer;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = {"tenantId", "username"}),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = {"tenantId", "email"}),
+        // Null until backfilled, so unique among the rows that have a key
+        @UniqueConstraint(name = User.USERNAME_KEY_CONSTRAINT, columnNames = {"tenantId", "usernameKey"}),
+        @UniqueConstraint(name = User.EMAIL_KEY_CONSTRAINT, columnNames = {"tenantId", "emailKey"})
+}, indexes = {
+        // Keyset pagination of the admin listing by creation time, within a tenant
+        @Index(name = "ix_users_created_at_id", columnList = "tenantId, createdAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
 
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final String USERNAME_KEY_CONSTRAINT = "uk_users_username_key";
+    public static final String EMAIL_KEY_CONSTRAINT = "uk_users_email_key";
+
+    // Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns rule out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 100)
+    // Set from TenantContext on insert, and every query is restricted to the current tenant
+    @TenantId
+    @Column(nullable = false, length = 64, updatable = false)
+    private String tenantId;
+
+    @Column(nullable = false, length = 100)
     private String username;
 
-    @Column(nullable = false, unique = true, length = 255)
+    @Column(nullable = false, length = 255)
     private String email;
 
+    // Lookup keys: username and email as compared for sign-in and uniqueness; see lookupKey
+    @Column(length = 100)
+    private String usernameKey;
+
+    @Column(length = 255)
+    private String emailKey;
+
     @Column(nullable = false)
     private String password;
 
@@ -34,4 +66,30 @@ public class User {
     @Column(nullable = false, updatable = false)
     @Builder.Default
     private Long createdAt = System.currentTimeMillis();
+
+    // Consecutive failed sign-ins and the lockout they triggered (epoch millis); see AccountLockout
+    @Column
+    @Builder.Default
+    private Integer failedLoginAttempts = 0;
+
+    @Column
+    private Long lockedUntil;
+
+    @PrePersist
+    @PreUpdate
+    public void deriveLookupKeys() {
+        usernameKey = lookupKey(username);
+        emailKey = lookupKey(email);
+    }
+
+    /**
+     * The form of a username or email that lookups and uniqueness go by: trimmed, NFKC-normalized
+     * and lowercased, so {@code Alice}, {@code alice} and a full-width {@code ａｌｉｃｅ} are one user.
+     */
+    public static String lookupKey(String value) {
+        if (value == null) {
+            return null;
+        }
+        return Normalizer.normalize(value.strip(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
 }
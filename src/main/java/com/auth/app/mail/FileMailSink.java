@@ -0,0 +1,68 @@
+package com.auth.app.mail;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each message to a local file as one JSON object per line, flushed after every batch.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.mail.sink", havingValue = "file")
+public class FileMailSink implements MailSink {
+
+    private final Path file;
+    private final OutputStream out;
+    private final JsonGenerator json;
+
+    public FileMailSink(@Value("${auth.mail.file:mail.ndjson}") String file) throws IOException {
+        this.file = Path.of(file).toAbsolutePath();
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        this.out = Files.newOutputStream(this.file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.json.setRootValueSeparator(null);
+        log.info("Writing outgoing mail to {}", this.file);
+    }
+
+    @Override
+    public void send(List<MailMessage> messages) {
+        try {
+            for (MailMessage message : messages) {
+                json.writeStartObject();
+                json.writeStringField("tenant", message.tenant());
+                json.writeStringField("to", message.recipient());
+                json.writeStringField("subject", message.subject());
+                json.writeStringField("body", message.body());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            json.close();
+        } catch (IOException e) {
+            log.warn("Failed to close mail file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.auth.app.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs each message instead of sending it, for development and for deployments that have no mail
+ * relay yet. Bodies carry live verification links, so they are only logged at DEBUG.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.mail.sink", havingValue = "log", matchIfMissing = true)
+public class LogMailSink implements MailSink {
+
+    @Override
+    public void send(List<MailMessage> messages) {
+        for (MailMessage message : messages) {
+            log.info("Mail to {} (tenant {}): {}", message.recipient(), message.tenant(), message.subject());
+            log.debug("Body of mail {}:\n{}", message.id(), message.body());
+        }
+    }
+}
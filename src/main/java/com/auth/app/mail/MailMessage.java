@@ -0,0 +1,8 @@
+package com.auth.app.mail;
+
+/**
+ * A message read back from the outbox for a {@link MailSink}. {@code id} is the outbox row, unique
+ * within the database the message was written to.
+ */
+public record MailMessage(long id, String tenant, String recipient, String subject, String body) {
+}
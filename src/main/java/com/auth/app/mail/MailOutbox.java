@@ -0,0 +1,197 @@
+package com.auth.app.mail;
+
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transactional outbox for outgoing mail. {@link #enqueue} writes the message as a row in the
+ * caller's transaction, so it exists exactly when the change that caused it was committed. A
+ * worker thread claims the rows in batches, hands each batch to the {@link MailSink} and deletes
+ * it once the sink returns. It is woken by each commit that enqueued mail, and otherwise polls every
+ * {@code auth.mail.outbox.poll-interval-ms} for what an earlier run or another node left.
+ *
+ * <p>A claim stamps the rows with a token of the pass, and only rows without a live claim can be
+ * stamped, so nodes sharing a database send different rows. Delivery is still at least once: a
+ * batch whose sink call fails is released for the next pass, and a claim older than
+ * {@code auth.mail.outbox.claim-timeout-ms} is taken over, in case its worker died mid-send.
+ */
+@Slf4j
+@Component
+public class MailOutbox implements DisposableBean {
+
+    private static final String INSERT_SQL =
+            "insert into email_outbox (tenantId, recipient, subject, body, createdAt) values (?, ?, ?, ?, ?)";
+    // Native, so every tenant's mail in the database is covered
+    private static final String CANDIDATES_SQL =
+            "select id from email_outbox where claimedAt is null or claimedAt < ? order by id";
+    // The guard is repeated so a row another node claimed since the candidates were read is skipped
+    private static final String CLAIM_SQL = "update email_outbox set claimedBy = ?, claimedAt = ? "
+            + "where (claimedAt is null or claimedAt < ?) and id in (%s)";
+    private static final String CLAIMED_SQL =
+            "select id, tenantId, recipient, subject, body from email_outbox where claimedBy = ? order by id";
+    private static final String RELEASE_SQL =
+            "update email_outbox set claimedBy = null, claimedAt = null where claimedBy = ?";
+    private static final String DELETE_SQL = "delete from email_outbox where id = ?";
+    private static final RowMapper<MailMessage> ROW_MAPPER = (rs, rowNum) ->
+            new MailMessage(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate batchJdbcTemplate;
+    private final MailSink sink;
+    private final TenancyProperties tenancyProperties;
+    private final boolean enabled;
+    private final long pollIntervalNanos;
+    private final long claimTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    public MailOutbox(DataSource dataSource,
+                      MailSink sink,
+                      TenancyProperties tenancyProperties,
+                      @Value("${auth.mail.outbox.enabled:true}") boolean enabled,
+                      @Value("${auth.mail.outbox.batch-size:100}") int batchSize,
+                      @Value("${auth.mail.outbox.poll-interval-ms:5000}") long pollIntervalMillis,
+                      @Value("${auth.mail.outbox.claim-timeout-ms:300000}") long claimTimeoutMillis,
+                      @Value("${auth.mail.outbox.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis) {
+        if (batchSize <= 0 || pollIntervalMillis <= 0 || claimTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "auth.mail.outbox.batch-size, poll-interval-ms and claim-timeout-ms must be positive");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchJdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchJdbcTemplate.setMaxRows(batchSize);
+        this.sink = sink;
+        this.tenancyProperties = tenancyProperties;
+        this.enabled = enabled;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.worker = new Thread(this::deliverUntilStopped, "mail-outbox");
+        this.worker.setDaemon(true);
+    }
+
+    // Started once the app is ready, so the outbox tables have been migrated in every database
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && !worker.isAlive()) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Adds a message for the current tenant to the outbox, in the caller's transaction if there is
+     * one. The worker is woken once that transaction commits.
+     */
+    public void enqueue(String recipient, String subject, String body) {
+        jdbcTemplate.update(INSERT_SQL, TenantContext.current(), recipient, subject, body, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops the worker after its current pass, then closes the sink. Messages still in the outbox
+     * are sent by the next node or start to poll.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (worker.isAlive()) {
+            LockSupport.unpark(worker);
+            worker.join(shutdownTimeoutMillis);
+            if (worker.isAlive()) {
+                log.warn("Mail outbox worker did not stop within {} ms", shutdownTimeoutMillis);
+            }
+        }
+        sink.close();
+    }
+
+    private void wake() {
+        LockSupport.unpark(worker);
+    }
+
+    private void deliverUntilStopped() {
+        while (running) {
+            try {
+                deliver(TenantContext.DEFAULT_TENANT);
+                // Tenants with their own database keep their mail there
+                tenancyProperties.datasources().keySet().forEach(this::deliver);
+            } catch (RuntimeException e) {
+                log.warn("Mail outbox pass failed: {}", e.getMessage());
+            }
+            LockSupport.parkNanos(pollIntervalNanos);
+        }
+    }
+
+    private void deliver(String tenant) {
+        TenantContext.runAs(tenant, () -> {
+            while (running) {
+                long now = System.currentTimeMillis();
+                List<Long> candidates = batchJdbcTemplate.queryForList(CANDIDATES_SQL, Long.class,
+                        now - claimTimeoutMillis);
+                if (candidates.isEmpty()) {
+                    return;
+                }
+                String claim = UUID.randomUUID().toString();
+                List<Object> args = new ArrayList<>(List.of(claim, now, now - claimTimeoutMillis));
+                args.addAll(candidates);
+                String placeholders = String.join(", ", Collections.nCopies(candidates.size(), "?"));
+                if (jdbcTemplate.update(CLAIM_SQL.formatted(placeholders), args.toArray()) == 0) {
+                    // Another node got there first; read the candidates again
+                    continue;
+                }
+                List<MailMessage> batch = jdbcTemplate.query(CLAIMED_SQL, ROW_MAPPER, claim);
+                try {
+                    sink.send(batch);
+                } catch (RuntimeException e) {
+                    // Released for the next pass, on whichever node, rather than retried at once
+                    jdbcTemplate.update(RELEASE_SQL, claim);
+                    failed.add(batch.size());
+                    log.warn("Failed to send {} messages from the mail outbox: {}", batch.size(), e.getMessage());
+                    return;
+                }
+                jdbcTemplate.batchUpdate(DELETE_SQL, batch, batch.size(),
+                        (statement, message) -> statement.setLong(1, message.id()));
+                sent.add(batch.size());
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.auth.app.mail;
+
+import java.util.List;
+
+/**
+ * Where {@link MailOutbox} delivers its batches: the application log by default, or an
+ * append-only file with {@code auth.mail.sink=file}. An SMTP or mail-API sink plugs in the same
+ * way. A batch that throws is retried whole on the next pass, so delivery is at least once.
+ * Only ever called from the outbox worker thread.
+ */
+public interface MailSink {
+
+    void send(List<MailMessage> messages);
+
+    default void close() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.auth.app.repository;
+
+/**
+ * Display fields of a user, loaded without the password hash or a managed entity.
+ */
+public record UserProfile(Long id, String username, String description) {
+}
@@ -1,15 +1,112 @@
 package com.auth.app.repository;
 
 import com.auth.app.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+// Query methods run in read-only transactions unless they say otherwise, so Hibernate skips
+// snapshots and dirty checking for what they load
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Hibernate restricts queries to the current tenant but not loads by primary key, so look
+    // ids up with a query too
+    @Override
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findById(@Param("id") Long id);
+
+    // Exact matches, for rows the lookup key backfill has not reached yet
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("select new com.auth.app.repository.UserProfile(u.id, u.username, u.description) "
+            + "from User u where u.username = :username")
+    Optional<UserProfile> findProfileByUsername(@Param("username") String username);
+
+    // By lookup key (see User.lookupKey), served by the unique key indexes
+    Optional<User> findByUsernameKey(String usernameKey);
+    List<User> findByUsernameKeyIn(Collection<String> usernameKeys);
+    boolean existsByUsernameKey(String usernameKey);
+    boolean existsByEmailKey(String emailKey);
+
+    @Query("select new com.auth.app.repository.UserProfile(u.id, u.username, u.description) "
+            + "from User u where u.usernameKey = :usernameKey")
+    Optional<UserProfile> findProfileByUsernameKey(@Param("usernameKey") String usernameKey);
+
+    // Keyset pages: each page starts strictly after the last row of the previous one, so the
+    // cost per page stays flat however deep the listing goes
+    @Query("select new com.auth.app.repository.UserSummary(u.id, u.username, u.email, u.enabled, u.description, u.createdAt) "
+            + "from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfterId(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select new com.auth.app.repository.UserSummary(u.id, u.username, u.email, u.enabled, u.description, u.createdAt) "
+            + "from User u where u.createdAt > :createdAt or (u.createdAt = :createdAt and u.id > :afterId) "
+            + "order by u.createdAt, u.id")
+    List<UserSummary> findSummariesAfterCreatedAt(@Param("createdAt") long createdAt,
+                                                  @Param("afterId") long afterId,
+                                                  Limit limit);
+
+    @Query("select u.usernameKey from User u where u.usernameKey in :usernameKeys")
+    List<String> findExistingUsernameKeys(@Param("usernameKeys") Collection<String> usernameKeys);
+
+    @Query("select u.emailKey from User u where u.emailKey in :emailKeys")
+    List<String> findExistingEmailKeys(@Param("emailKeys") Collection<String> emailKeys);
+
+    // Native, so Hibernate's tenant restriction doesn't apply: every tenant's values, each
+    // prefixed with its tenant id the way TenantContext.qualify does
+    @Query(value = "select concat(tenantId, ':', username) from users", nativeQuery = true)
+    Stream<String> streamAllQualifiedUsernames();
+
+    @Query(value = "select concat(tenantId, ':', email) from users", nativeQuery = true)
+    Stream<String> streamAllQualifiedEmails();
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id,
+                       @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.description = :description where u.id = :id")
+    int updateDescription(@Param("id") Long id, @Param("description") String description);
+
+    // Counted by the database, so failures racing on other threads or nodes each add one; the
+    // row stays locked until the caller's transaction ends, which makes the count read back its own
+    @Modifying
+    @Transactional
+    @Query("update User u set u.failedLoginAttempts = coalesce(u.failedLoginAttempts, 0) + 1 where u.id = :id")
+    int incrementLoginFailures(@Param("id") Long id);
+
+    @Query("select u.failedLoginAttempts from User u where u.id = :id")
+    Optional<Integer> findLoginFailures(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.lockedUntil = :lockedUntil where u.id = :id")
+    int updateLockedUntil(@Param("id") Long id, @Param("lockedUntil") Long lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.failedLoginAttempts = 0, u.lockedUntil = null "
+            + "where u.id = :id and (u.failedLoginAttempts > 0 or u.lockedUntil is not null)")
+    int clearLoginFailures(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.enabled = true where u.id = :id")
+    int enable(@Param("id") Long id);
 }
@@ -0,0 +1,8 @@
+package com.auth.app.repository;
+
+/**
+ * A user as listed and exported by the admin API. Never carries the password hash.
+ */
+public record UserSummary(Long id, String username, String email, Boolean enabled,
+                          String description, Long createdAt) {
+}
@@ -0,0 +1,96 @@
+package com.auth.app.service;
+
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Progressive lockout after consecutive failed sign-ins, recorded on the user row so it holds
+ * across nodes and restarts. Reaching the threshold locks the account for the base duration, and
+ * every further failure doubles it up to the maximum. A successful sign-in clears the count.
+ * Counts are changed in SQL rather than written back from the loaded user, which may be stale.
+ */
+@Slf4j
+@Component
+public class AccountLockout {
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int threshold;
+    private final long baseMillis;
+    private final long maxMillis;
+
+    public AccountLockout(UserRepository userRepository,
+                          UserCache userCache,
+                          ReadYourWrites readYourWrites,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${auth.login-lockout.enabled:true}") boolean enabled,
+                          @Value("${auth.login-lockout.threshold:5}") int threshold,
+                          @Value("${auth.login-lockout.base-seconds:30}") long baseSeconds,
+                          @Value("${auth.login-lockout.max-seconds:900}") long maxSeconds) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.baseMillis = baseSeconds * 1000;
+        this.maxMillis = maxSeconds * 1000;
+    }
+
+    /**
+     * Seconds until the account unlocks, or zero when it is not locked.
+     */
+    public long lockedForSeconds(User user) {
+        if (!enabled || user.getLockedUntil() == null) {
+            return 0;
+        }
+        long remaining = user.getLockedUntil() - System.currentTimeMillis();
+        return remaining > 0 ? (remaining + 999) / 1000 : 0;
+    }
+
+    public void recordFailure(User user) {
+        if (!enabled) {
+            return;
+        }
+        // One read-write transaction, so the count is read on the primary under the row lock the
+        // increment took, and the lock ends up derived from this failure's own count
+        Integer attempts = transactionTemplate.execute(status -> {
+            if (userRepository.incrementLoginFailures(user.getId()) == 0) {
+                return null;
+            }
+            int count = userRepository.findLoginFailures(user.getId()).orElse(0);
+            if (count >= threshold) {
+                int doublings = Math.min(count - threshold, 30);
+                userRepository.updateLockedUntil(user.getId(),
+                        System.currentTimeMillis() + Math.min(maxMillis, baseMillis << doublings));
+            }
+            return count;
+        });
+        if (attempts != null && attempts >= threshold) {
+            log.info("Locking user {} after {} failed sign-ins", user.getId(), attempts);
+        }
+        userCache.evict(user.getId());
+        // The next attempt must count from this one, not from a lagging replica
+        readYourWrites.recordWrite(user.getUsername());
+    }
+
+    public void recordSuccess(User user) {
+        if (!enabled) {
+            return;
+        }
+        // Not skipped on the loaded user's count: it may predate a failure recorded elsewhere.
+        // The update only matches when there is something to clear
+        if (userRepository.clearLoginFailures(user.getId()) > 0) {
+            userCache.evict(user.getId());
+            readYourWrites.recordWrite(user.getUsername());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.auth.app.service;
+
+import com.auth.app.audit.AuditLog;
+import com.auth.app.mail.MailOutbox;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Timers for the authentication service and endpoints, plus gauges over the user cache, the
+ * password hashing pool, user lookup coalescing, the audit log and the mail outbox. Percentiles
+ * and histogram buckets for every {@code auth.*} timer are configured through
+ * {@code management.metrics.distribution.*}.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String OPERATION_TIMER = "auth.operation";
+    public static final String REQUEST_TIMER = "auth.request";
+    public static final String HASHES_SAVED_COUNTER = "auth.login.hashes.saved";
+
+    public static final String SUCCESS = "success";
+    public static final String VALIDATION_ERROR = "validation_error";
+    public static final String BAD_CREDENTIALS = "bad_credentials";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private volatile boolean paused;
+
+    public AuthMetrics(MeterRegistry registry, UserCache userCache, PasswordHashingExecutor passwordHashingExecutor,
+                       AuditLog auditLog, UserLookupCoalescer userLookupCoalescer, MailOutbox mailOutbox) {
+        this.registry = registry;
+
+        Gauge.builder("auth.user.cache.size", userCache, UserCache::size)
+                .description("Users held in the lookup cache")
+                .register(registry);
+        FunctionCounter.builder("auth.user.cache.requests", userCache, UserCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.user.cache.requests", userCache, UserCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.user.cache.evictions", userCache, UserCache::getEvictionCount)
+                .register(registry);
+
+        FunctionCounter.builder("auth.user.lookup.requests", userLookupCoalescer, UserLookupCoalescer::getRequestCount)
+                .description("User lookups by username that reached the database layer")
+                .register(registry);
+        FunctionCounter.builder("auth.user.lookup.joined", userLookupCoalescer, UserLookupCoalescer::getJoinedCount)
+                .description("Lookups answered by a query another caller already had running")
+                .register(registry);
+        FunctionCounter.builder("auth.user.lookup.queries", userLookupCoalescer, UserLookupCoalescer::getQueryCount)
+                .description("Queries, and so pooled connections, used to answer user lookups")
+                .register(registry);
+        FunctionCounter.builder("auth.user.lookup.connections.saved", userLookupCoalescer,
+                        c -> c.getRequestCount() - c.getQueryCount())
+                .description("Lookups that did not need a pooled connection of their own")
+                .register(registry);
+        Gauge.builder("auth.user.lookup.coalescing.ratio", userLookupCoalescer,
+                        c -> c.getQueryCount() == 0 ? 1.0 : (double) c.getRequestCount() / c.getQueryCount())
+                .description("User lookups answered per query")
+                .register(registry);
+
+        Gauge.builder("auth.password.hashing.active", passwordHashingExecutor, PasswordHashingExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(registry);
+        Gauge.builder("auth.password.hashing.queued", passwordHashingExecutor, PasswordHashingExecutor::getQueueSize)
+                .description("Password hashes waiting for a pool thread")
+                .register(registry);
+        FunctionCounter.builder("auth.password.hashing.rejected", passwordHashingExecutor,
+                        PasswordHashingExecutor::getRejectedCount)
+                .description("Password hashes refused because the queue was full")
+                .register(registry);
+
+        Gauge.builder("auth.audit.queued", auditLog, AuditLog::getQueuedCount)
+                .description("Audit events waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.events", auditLog, AuditLog::getWrittenCount)
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.events", auditLog, AuditLog::getDroppedCount)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.events", auditLog, AuditLog::getFailedCount)
+                .tag("result", "failed")
+                .register(registry);
+
+        FunctionCounter.builder("auth.mail.outbox.messages", mailOutbox, MailOutbox::getSentCount)
+                .tag("result", "sent")
+                .register(registry);
+        FunctionCounter.builder("auth.mail.outbox.messages", mailOutbox, MailOutbox::getFailedCount)
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Stops recording {@code auth.*} timers and counters until {@link #resumeRecording()}, so
+     * synthetic traffic such as the startup warmup doesn't show up as real sign-ins.
+     */
+    public void pauseRecording() {
+        paused = true;
+    }
+
+    public void resumeRecording() {
+        paused = false;
+    }
+
+    public void recordOperation(Timer.Sample sample, String operation, String outcome) {
+        if (paused) {
+            return;
+        }
+        sample.stop(registry.timer(OPERATION_TIMER, "operation", operation, "outcome", outcome));
+    }
+
+    public void recordRequest(Timer.Sample sample, String endpoint, String outcome) {
+        if (paused) {
+            return;
+        }
+        sample.stop(registry.timer(REQUEST_TIMER, "endpoint", endpoint, "outcome", outcome));
+    }
+
+    /**
+     * Counts a sign-in attempt turned away before its password was hashed, by what stopped it
+     * ({@code username}, {@code ip} or {@code locked}).
+     */
+    public void recordHashSaved(String reason) {
+        if (paused) {
+            return;
+        }
+        registry.counter(HASHES_SAVED_COUNTER, "reason", reason).increment();
+    }
+
+    /**
+     * Times {@code action} as {@code operation}, tagging the outcome as success, or as a validation
+     * error or error depending on what it throws.
+     */
+    public <T> T timeOperation(String operation, Supplier<T> action) {
+        Timer.Sample sample = start();
+        try {
+            T result = action.get();
+            recordOperation(sample, operation, SUCCESS);
+            return result;
+        } catch (RuntimeException e) {
+            recordOperation(sample, operation, outcomeOf(e));
+            throw e;
+        }
+    }
+
+    public static String outcomeOf(Throwable e) {
+        return e instanceof IllegalArgumentException ? VALIDATION_ERROR : ERROR;
+    }
+}
@@ -1,20 +1,42 @@
 package com.auth.app.service;
 
+import com.auth.app.audit.AuditLog;
+import com.auth.app.audit.AuthEventType;
+import com.auth.app.datasource.DataSourceRouting;
 import com.auth.app.entity.User;
+import com.auth.app.repository.UserProfile;
 import com.auth.app.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final UserCache userCache;
+    private final TakenIdentifiers takenIdentifiers;
+    private final AuthMetrics authMetrics;
+    private final ReadYourWrites readYourWrites;
+    private final AuditLog auditLog;
+    private final UserLookupKeyBackfill lookupKeyBackfill;
+    private final UserLookupCoalescer userLookupCoalescer;
+    private final EmailVerification emailVerification;
     
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
         "^[A-Za-z0-9+_.-]+@(.+)$"
@@ -24,51 +46,253 @@ public class AuthService {
     private static final int MIN_PASSWORD_LENGTH = 6;
     private static final int MAX_PASSWORD_LENGTH = 255;
     private static final int MAX_EMAIL_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
 
     public User signUp(String username, String email, String password) {
         return signUp(username, email, password, null);
     }
     
     public User signUp(String username, String email, String password, String description) {
+        // Duplicate checks must see every committed user, so sign-up never reads from a replica
+        User user = authMetrics.timeOperation("signup",
+                () -> DataSourceRouting.onPrimary(() -> createUser(username, email, password, description)));
+        auditLog.record(AuthEventType.SIGNUP, user.getId(), user.getUsername());
+        return user;
+    }
+
+    private User createUser(String username, String email, String password, String description) {
         // Validate inputs
         validateUsername(username);
         validateEmail(email);
         validatePassword(password);
+        validateDescription(description);
         
-        if (userRepository.existsByUsername(username.trim())) {
-            throw new IllegalArgumentException("Username already exists");
-        }
-        if (userRepository.existsByEmail(email.trim())) {
-            throw new IllegalArgumentException("Email already exists");
+        String trimmedUsername = username.trim();
+        String trimmedEmail = email.trim();
+        String usernameKey = User.lookupKey(trimmedUsername);
+        String emailKey = User.lookupKey(trimmedEmail);
+
+        // BCrypt is the slow step, so it starts on the hashing pool (rejected when that is full)
+        // while this thread checks uniqueness and mints the verification token
+        CompletableFuture<String> passwordHash = CompletableFuture.supplyAsync(
+                () -> passwordEncoder.encode(password), passwordHashingExecutor);
+        String verificationToken;
+        try {
+            // The unique constraints are authoritative; existence checks only run when the filter
+            // suggests a duplicate
+            if (takenIdentifiers.mightContainUsername(usernameKey) && userRepository.existsByUsernameKey(usernameKey)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+            if (takenIdentifiers.mightContainEmail(emailKey) && userRepository.existsByEmailKey(emailKey)) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            verificationToken = emailVerification.isEnabled() ? emailVerification.newToken() : null;
+        } catch (RuntimeException e) {
+            // Frees the pool slot if the hash hasn't started yet
+            passwordHash.cancel(false);
+            throw e;
         }
 
         User user = User.builder()
-                .username(username.trim())
-                .email(email.trim())
-                .password(passwordEncoder.encode(password))
+                .username(trimmedUsername)
+                .email(trimmedEmail)
+                .password(join(passwordHash))
                 .description(description)
                 .enabled(true)
                 .build();
 
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = verificationToken != null
+                    ? emailVerification.saveUnverified(user, verificationToken)
+                    : userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateSignUp(e, usernameKey, emailKey);
+        }
+        takenIdentifiers.add(usernameKey, emailKey);
+        userCache.put(saved);
+        readYourWrites.recordWrite(trimmedUsername);
+        return saved;
     }
 
     public Optional<User> findByUsername(String username) {
         if (username == null || username.trim().isEmpty()) {
             return Optional.empty();
         }
-        return userRepository.findByUsername(username.trim());
+        String trimmed = username.trim();
+        String usernameKey = User.lookupKey(trimmed);
+        Timer.Sample sample = authMetrics.start();
+        Optional<UserCache.CachedUser> cached = userCache.getByUsername(usernameKey);
+        if (cached.isPresent()) {
+            authMetrics.recordOperation(sample, "find_by_username", "cache_hit");
+            return Optional.of(cached.get().toUser());
+        }
+        Optional<User> user;
+        try {
+            user = readYourWrites.read(trimmed, () -> {
+                Optional<User> found = userLookupCoalescer.findByUsernameKey(usernameKey);
+                // A user the backfill has not reached yet can only be found as it was typed
+                return found.isPresent() || lookupKeyBackfill.isComplete() ? found : userRepository.findByUsername(trimmed);
+            });
+        } catch (RuntimeException e) {
+            authMetrics.recordOperation(sample, "find_by_username", AuthMetrics.ERROR);
+            throw e;
+        }
+        authMetrics.recordOperation(sample, "find_by_username", user.isPresent() ? "found" : "not_found");
+        user.ifPresent(userCache::put);
+        return user;
+    }
+
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<UserCache.CachedUser> cached = userCache.getById(id);
+        if (cached.isPresent()) {
+            return Optional.of(cached.get().toUser());
+        }
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(userCache::put);
+        return user;
+    }
+
+    /**
+     * Display fields for page views. Served from the user cache when possible, otherwise read as
+     * a projection so the password hash and a managed entity never get loaded.
+     */
+    public Optional<UserProfile> findProfile(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        String trimmed = username.trim();
+        String usernameKey = User.lookupKey(trimmed);
+        Timer.Sample sample = authMetrics.start();
+        Optional<UserCache.CachedUser> cached = userCache.getByUsername(usernameKey);
+        if (cached.isPresent()) {
+            authMetrics.recordOperation(sample, "find_profile", "cache_hit");
+            return Optional.of(new UserProfile(cached.get().id(), cached.get().username(), cached.get().description()));
+        }
+        Optional<UserProfile> profile = readYourWrites.read(trimmed, () -> {
+            Optional<UserProfile> found = userRepository.findProfileByUsernameKey(usernameKey);
+            return found.isPresent() || lookupKeyBackfill.isComplete() ? found : userRepository.findProfileByUsername(trimmed);
+        });
+        authMetrics.recordOperation(sample, "find_profile", profile.isPresent() ? "found" : "not_found");
+        return profile;
+    }
+
+    /**
+     * Updates only the description column. Returns {@code false} when no user has the id.
+     */
+    public boolean updateDescription(Long userId, String description) {
+        validateDescription(description);
+        return authMetrics.timeOperation("update_description", () -> {
+            if (userRepository.updateDescription(userId, description) == 0) {
+                userCache.evict(userId);
+                return false;
+            }
+            auditLog.record(AuthEventType.SETTINGS_CHANGE, userId, null);
+            // Write through so the next page view is still a cache hit
+            userCache.getById(userId).map(UserCache.CachedUser::toUser).ifPresent(user -> {
+                user.setDescription(description);
+                userCache.put(user);
+            });
+            return true;
+        });
     }
 
     public boolean validatePassword(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        Timer.Sample sample = authMetrics.start();
+        boolean valid = passwordEncoder.matches(rawPassword, encodedPassword);
+        authMetrics.recordOperation(sample, "validate_password", valid ? AuthMetrics.SUCCESS : AuthMetrics.BAD_CREDENTIALS);
+        return valid;
+    }
+
+    /**
+     * Runs the password check on the hashing pool. Throws {@link RejectedExecutionException}
+     * straight away when the pool is saturated. A successful match against a stale hash
+     * schedules a background re-hash with the current encoder settings.
+     */
+    public CompletableFuture<Boolean> validatePasswordAsync(User user, String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> {
+            boolean valid = validatePassword(rawPassword, user.getPassword());
+            auditLog.record(valid ? AuthEventType.LOGIN_SUCCESS : AuthEventType.LOGIN_FAILURE, user.getId(), user.getUsername());
+            if (valid && passwordEncoder.upgradeEncoding(user.getPassword())) {
+                upgradePasswordHash(user, rawPassword);
+            }
+            return valid;
+        }, passwordHashingExecutor);
+    }
+
+    private void upgradePasswordHash(User user, String rawPassword) {
+        String staleHash = user.getPassword();
+        try {
+            passwordHashingExecutor.execute(() -> {
+                int updated = userRepository.updatePassword(user.getId(), staleHash, passwordEncoder.encode(rawPassword));
+                if (updated > 0) {
+                    userCache.evict(user.getId());
+                    log.debug("Upgraded password hash for user {}", user.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool is busy with logins; the hash is upgraded on a later sign-in instead
+            log.debug("Skipped password hash upgrade for user {}: hashing pool saturated", user.getId());
+        }
     }
     
     public User saveUser(User user) {
-        return userRepository.save(user);
+        return authMetrics.timeOperation("save_user", () -> {
+            User saved = userRepository.save(user);
+            userCache.put(saved);
+            readYourWrites.recordWrite(saved.getUsername());
+            return saved;
+        });
     }
     
-    private void validateUsername(String username) {
+    /**
+     * Whether {@code user} may sign in: enabled, or verified since this copy of it was cached.
+     */
+    public boolean isVerified(User user) {
+        if (Boolean.TRUE.equals(user.getEnabled())) {
+            return true;
+        }
+        // Possibly verified through another node; only unverified sign-ins pay for this read
+        userCache.evict(user.getId());
+        return DataSourceRouting.onPrimary(() -> userRepository.findById(user.getId()))
+                .map(current -> Boolean.TRUE.equals(current.getEnabled()))
+                .orElse(false);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RuntimeException duplicateSignUp(DataIntegrityViolationException e, String usernameKey, String emailKey) {
+        String detail = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.USERNAME_CONSTRAINT)) {
+            return new IllegalArgumentException("Username already exists");
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT)) {
+            return new IllegalArgumentException("Email already exists");
+        }
+        // Driver didn't name the constraint; only the failure path pays for these lookups.
+        // The key constraints' names extend the plain ones, so both are matched above.
+        if (userRepository.existsByUsernameKey(usernameKey)) {
+            return new IllegalArgumentException("Username already exists");
+        }
+        if (userRepository.existsByEmailKey(emailKey)) {
+            return new IllegalArgumentException("Email already exists");
+        }
+        return e;
+    }
+    
+    void validateUsername(String username) {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be empty");
         }
@@ -76,17 +300,18 @@ public class AuthService {
         if (trimmed.length() < MIN_USERNAME_LENGTH) {
             throw new IllegalArgumentException("Username must be at least " + MIN_USERNAME_LENGTH + " characters");
         }
-        if (trimmed.length() > MAX_USERNAME_LENGTH) {
+        // Normalization can lengthen a name, and the key has to fit the same column width
+        if (trimmed.length() > MAX_USERNAME_LENGTH || User.lookupKey(trimmed).length() > MAX_USERNAME_LENGTH) {
             throw new IllegalArgumentException("Username must not exceed " + MAX_USERNAME_LENGTH + " characters");
         }
     }
     
-    private void validateEmail(String email) {
+    void validateEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Email cannot be empty");
         }
         String trimmed = email.trim();
-        if (trimmed.length() > MAX_EMAIL_LENGTH) {
+        if (trimmed.length() > MAX_EMAIL_LENGTH || User.lookupKey(trimmed).length() > MAX_EMAIL_LENGTH) {
             throw new IllegalArgumentException("Email must not exceed " + MAX_EMAIL_LENGTH + " characters");
         }
         if (!EMAIL_PATTERN.matcher(trimmed).matches()) {
@@ -94,7 +319,13 @@ public class AuthService {
         }
     }
     
-    private void validatePassword(String password) {
+    void validateDescription(String description) {
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description must not exceed " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+    }
+    
+    void validatePassword(String password) {
         if (password == null || password.isEmpty()) {
             throw new IllegalArgumentException("Password cannot be empty");
         }
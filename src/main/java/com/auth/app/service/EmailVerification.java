@@ -0,0 +1,205 @@
+package com.auth.app.service;
+
+import com.auth.app.audit.AuditLog;
+import com.auth.app.audit.AuthEventType;
+import com.auth.app.datasource.DataSourceRouting;
+import com.auth.app.entity.User;
+import com.auth.app.mail.MailOutbox;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email verification for new accounts. Sign-up saves the user disabled, together with a hash of a
+ * random token and an outbox message carrying the link, all in one transaction; redeeming the
+ * token enables the account. Tokens start with their tenant, so a link opened without the tenant's
+ * host or header still finds the right database. Accounts whose token expired unredeemed are
+ * deleted by a periodic purge, which frees their usernames and emails for a new sign-up.
+ */
+@Slf4j
+@Component
+public class EmailVerification {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String SUBJECT = "Confirm your email address";
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final MailOutbox mailOutbox;
+    private final AuditLog auditLog;
+    private final TenancyProperties tenancyProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+    private final boolean enabled;
+    private final long tokenTtlMillis;
+    private final String baseUrl;
+
+    public EmailVerification(UserRepository userRepository,
+                             UserCache userCache,
+                             MailOutbox mailOutbox,
+                             AuditLog auditLog,
+                             TenancyProperties tenancyProperties,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${auth.signup.verification.enabled:true}") boolean enabled,
+                             @Value("${auth.signup.verification.token-ttl-hours:48}") long tokenTtlHours,
+                             @Value("${auth.signup.verification.base-url:http://localhost:8080}") String baseUrl) {
+        if (tokenTtlHours <= 0) {
+            throw new IllegalArgumentException("auth.signup.verification.token-ttl-hours must be positive");
+        }
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.mailOutbox = mailOutbox;
+        this.auditLog = auditLog;
+        this.tenancyProperties = tenancyProperties;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.tokenTtlMillis = TimeUnit.HOURS.toMillis(tokenTtlHours);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Whether new accounts start disabled until their email address is verified.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * A fresh token for the current tenant. Cheap enough to mint while the password hashes.
+     */
+    public String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return TenantContext.current() + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Saves {@code user} disabled, with {@code token} and the mail carrying it, in one transaction.
+     */
+    public User saveUnverified(User user, String token) {
+        user.setEnabled(false);
+        return transactionTemplate.execute(status -> {
+            // Flushed here so a duplicate fails before anything else is written
+            User saved = userRepository.saveAndFlush(user);
+            jdbcTemplate.update("insert into email_verifications (tokenHash, tenantId, userId, expiresAt) values (?, ?, ?, ?)",
+                    hash(token), saved.getTenantId(), saved.getId(), System.currentTimeMillis() + tokenTtlMillis);
+            mailOutbox.enqueue(saved.getEmail(), SUBJECT, "Hello " + saved.getUsername() + ",\n\n"
+                    + "Open this link to activate your account:\n"
+                    + baseUrl + "/verify?token=" + token + "\n\n"
+                    + "The link expires in " + TimeUnit.MILLISECONDS.toHours(tokenTtlMillis) + " hours.");
+            return saved;
+        });
+    }
+
+    /**
+     * Redeems {@code token}, enabling its account. Each token works once; returns the id of the user
+     * it verified, or empty for an unknown, used or expired token.
+     */
+    public Optional<Long> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        String tenant = dot > 0 ? token.substring(0, dot) : null;
+        if (!TenantContext.isValid(tenant) || !tenancyProperties.isKnown(tenant)) {
+            return Optional.empty();
+        }
+        Optional<Long> verified = TenantContext.callAs(tenant, () -> DataSourceRouting.onPrimary(() ->
+                transactionTemplate.execute(status -> redeem(hash(token)))));
+        verified.ifPresent(userId -> {
+            userCache.evict(userId);
+            TenantContext.runAs(tenant, () -> auditLog.record(AuthEventType.EMAIL_VERIFIED, userId, null));
+        });
+        return verified;
+    }
+
+    private Optional<Long> redeem(String tokenHash) {
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "select userId from email_verifications where tokenHash = ? and tenantId = ?",
+                Long.class, tokenHash, TenantContext.current());
+        if (userIds.isEmpty()) {
+            return Optional.empty();
+        }
+        // Whoever deletes the row redeems it, so a link opened twice at once verifies once. An
+        // expired row is left in place: it is how purgeExpired finds the account to delete
+        if (jdbcTemplate.update("delete from email_verifications where tokenHash = ? and expiresAt >= ?",
+                tokenHash, System.currentTimeMillis()) == 0) {
+            return Optional.empty();
+        }
+        return userRepository.enable(userIds.get(0)) > 0 ? Optional.of(userIds.get(0)) : Optional.empty();
+    }
+
+    /**
+     * Deletes expired tokens together with the accounts still waiting on them, in the shared
+     * database and in every tenant database. Returns the number of accounts deleted.
+     */
+    // Not at startup: the first run waits a full interval too
+    @Scheduled(initialDelayString = "${auth.signup.verification.purge-interval-ms:3600000}",
+            fixedDelayString = "${auth.signup.verification.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        int purged = purgeExpired(TenantContext.DEFAULT_TENANT);
+        for (String tenant : tenancyProperties.datasources().keySet()) {
+            purged += purgeExpired(tenant);
+        }
+        return purged;
+    }
+
+    private int purgeExpired(String tenant) {
+        long now = System.currentTimeMillis();
+        // Native, so it covers every tenant sharing the database
+        List<ExpiredToken> deleted = TenantContext.callAs(tenant, () -> transactionTemplate.execute(status -> {
+            List<ExpiredToken> expired = jdbcTemplate.query(
+                    "select tenantId, userId from email_verifications where expiresAt < ?",
+                    (rs, rowNum) -> new ExpiredToken(rs.getString(1), rs.getLong(2)), now);
+            List<ExpiredToken> accounts = new ArrayList<>();
+            for (ExpiredToken token : expired) {
+                // Only accounts never verified; an account enabled some other way stays
+                if (jdbcTemplate.update("delete from users where id = ? and tenantId = ? and enabled = false",
+                        token.userId(), token.tenant()) > 0) {
+                    accounts.add(token);
+                }
+            }
+            jdbcTemplate.update("delete from email_verifications where expiresAt < ?", now);
+            return accounts;
+        }));
+        deleted.forEach(token -> TenantContext.runAs(token.tenant(), () -> userCache.evict(token.userId())));
+        if (!deleted.isEmpty()) {
+            log.info("Deleted {} accounts whose email was never verified", deleted.size());
+        }
+        return deleted.size();
+    }
+
+    private record ExpiredToken(String tenant, long userId) {
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.auth.app.service;
+
+import com.auth.app.entity.User;
+import com.auth.app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps sign-in attempts per username and per client IP over a sliding window, so credential
+ * stuffing is turned away before it costs a database lookup or a password hash. Counting is
+ * approximate and bounded in memory regardless of how many distinct keys are seen; attempts
+ * racing past the limit at the same instant may overshoot it slightly.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final int maxAttemptsPerUsername;
+    private final int maxAttemptsPerIp;
+    private final SlidingWindowCounter usernames;
+    private final SlidingWindowCounter clientIps;
+
+    public LoginThrottle(@Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.login-throttle.window-seconds:60}") long windowSeconds,
+                         @Value("${auth.login-throttle.max-attempts-per-username:10}") int maxAttemptsPerUsername,
+                         @Value("${auth.login-throttle.max-attempts-per-ip:100}") int maxAttemptsPerIp,
+                         @Value("${auth.login-throttle.sketch-width:16384}") int sketchWidth) {
+        this.enabled = enabled;
+        this.maxAttemptsPerUsername = maxAttemptsPerUsername;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.usernames = new SlidingWindowCounter(sketchWidth, windowSeconds * 1000);
+        this.clientIps = new SlidingWindowCounter(sketchWidth, windowSeconds * 1000);
+    }
+
+    /**
+     * Counts the attempt against both keys if neither is over its limit. A rejected attempt is not
+     * counted, so a client that backs off regains access as the window slides.
+     */
+    public Decision tryAcquire(String username, String clientIp) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        long now = System.currentTimeMillis();
+        String usernameKey = TenantContext.qualify(User.lookupKey(username));
+        if (usernames.estimate(usernameKey, now) >= maxAttemptsPerUsername) {
+            return Decision.rejected("username", retryAfterSeconds(usernames, now));
+        }
+        if (clientIp != null && clientIps.estimate(clientIp, now) >= maxAttemptsPerIp) {
+            return Decision.rejected("ip", retryAfterSeconds(clientIps, now));
+        }
+        usernames.increment(usernameKey, now);
+        if (clientIp != null) {
+            clientIps.increment(clientIp, now);
+        }
+        return Decision.ALLOWED;
+    }
+
+    private static long retryAfterSeconds(SlidingWindowCounter counter, long now) {
+        return Math.max(1, (counter.millisUntilNextWindow(now) + 999) / 1000);
+    }
+
+    public record Decision(boolean allowed, String limitedBy, long retryAfterSeconds) {
+
+        public static final Decision ALLOWED = new Decision(true, null, 0);
+
+        static Decision rejected(String limitedBy, long retryAfterSeconds) {
+            return new Decision(false, limitedBy, retryAfterSeconds);
+        }
+    }
+}
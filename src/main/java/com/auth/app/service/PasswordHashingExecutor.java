@@ -0,0 +1,78 @@
+package com.auth.app.service;
+
+import com.auth.app.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated pool for CPU-bound password hashing. Sized to the available cores with a bounded
+ * admission queue, so a login storm is rejected early instead of pinning every Tomcat thread.
+ * Tasks run for the tenant that submitted them.
+ */
+@Component
+public class PasswordHashingExecutor implements Executor {
+
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${auth.password-hashing.threads:0}") int threads,
+                                   @Value("${auth.password-hashing.queue-capacity:100}") int queueCapacity,
+                                   @Value("${auth.password-hashing.retry-after-seconds:1}") int retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejectedCount.increment();
+                    throw new RejectedExecutionException("Password hashing queue is full");
+                });
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(TenantContext.wrap(command));
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
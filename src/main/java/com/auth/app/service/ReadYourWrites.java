@@ -0,0 +1,60 @@
+package com.auth.app.service;
+
+import com.auth.app.datasource.DataSourceRouting;
+import com.auth.app.entity.User;
+import com.auth.app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps lookups of a user on the primary for a short window after their row is written, so
+ * replica lag can't hide a fresh sign-up or a just-recorded failed login from the next request.
+ * The window is tracked per node.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final long windowMillis;
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(@Value("${auth.datasource.replica.read-your-writes-millis:5000}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void recordWrite(String username) {
+        if (windowMillis <= 0 || username == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (stickyUntil.size() >= MAX_TRACKED_USERS) {
+            stickyUntil.values().removeIf(until -> until <= now);
+        }
+        stickyUntil.put(key(username), now + windowMillis);
+    }
+
+    /**
+     * Runs {@code lookup} on the primary if {@code username} was written within the window,
+     * otherwise wherever the routing sends it.
+     */
+    public <T> T read(String username, Supplier<T> lookup) {
+        String key = key(username);
+        Long until = stickyUntil.get(key);
+        if (until == null) {
+            return lookup.get();
+        }
+        if (until <= System.currentTimeMillis()) {
+            stickyUntil.remove(key, until);
+            return lookup.get();
+        }
+        return DataSourceRouting.onPrimary(lookup);
+    }
+
+    private static String key(String username) {
+        return TenantContext.qualify(User.lookupKey(username));
+    }
+}
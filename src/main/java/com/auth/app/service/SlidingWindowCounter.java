@@ -0,0 +1,87 @@
+package com.auth.app.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximate per-key event counts over a sliding window, in fixed memory. Each fixed window is a
+ * count-min sketch, and the sliding count weights the previous window by how much of it still
+ * overlaps. Estimates can overcount on hash collisions but never undercount, and all updates are
+ * lock-free.
+ */
+class SlidingWindowCounter {
+
+    private static final int DEPTH = 4;
+
+    private final int width;
+    private final int mask;
+    private final long windowMillis;
+    private final AtomicReference<Windows> windows;
+
+    SlidingWindowCounter(int width, long windowMillis) {
+        int size = Integer.highestOneBit(Math.max(16, width));
+        this.width = size < width ? size << 1 : size;
+        this.mask = this.width - 1;
+        this.windowMillis = windowMillis;
+        this.windows = new AtomicReference<>(new Windows(Long.MIN_VALUE, newSketch(), null));
+    }
+
+    long estimate(String key, long nowMillis) {
+        Windows current = windowsAt(nowMillis);
+        long hash1 = BloomFilter.hash(key);
+        long hash2 = BloomFilter.mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        double estimate = count(current.current(), hash1, hash2);
+        if (current.previous() != null) {
+            double overlap = 1.0 - (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+            estimate += overlap * count(current.previous(), hash1, hash2);
+        }
+        return (long) Math.ceil(estimate);
+    }
+
+    void increment(String key, long nowMillis) {
+        AtomicIntegerArray sketch = windowsAt(nowMillis).current();
+        long hash1 = BloomFilter.hash(key);
+        long hash2 = BloomFilter.mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int row = 0; row < DEPTH; row++) {
+            sketch.incrementAndGet(index(row, hash1, hash2));
+        }
+    }
+
+    long millisUntilNextWindow(long nowMillis) {
+        return windowMillis - Math.floorMod(nowMillis, windowMillis);
+    }
+
+    private int count(AtomicIntegerArray sketch, long hash1, long hash2) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, sketch.get(index(row, hash1, hash2)));
+        }
+        return min;
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        return row * width + (int) ((hash1 + row * hash2) & mask);
+    }
+
+    private Windows windowsAt(long nowMillis) {
+        long epoch = Math.floorDiv(nowMillis, windowMillis);
+        Windows current = windows.get();
+        // A clock step backwards keeps counting into the newest window
+        while (current.epoch() < epoch) {
+            AtomicIntegerArray previous = current.epoch() == epoch - 1 ? current.current() : null;
+            Windows next = new Windows(epoch, newSketch(), previous);
+            if (windows.compareAndSet(current, next)) {
+                return next;
+            }
+            current = windows.get();
+        }
+        return current;
+    }
+
+    private AtomicIntegerArray newSketch() {
+        return new AtomicIntegerArray(DEPTH * width);
+    }
+
+    private record Windows(long epoch, AtomicIntegerArray current, AtomicIntegerArray previous) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.auth.app.service;
+
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters of usernames and emails already in use. Signup only pays for an existence
+ * query when the filter says a value may be taken; everything else goes straight to the insert.
+ * Until the filters are seeded from the database every value is reported as possibly taken.
+ * Values are keyed by tenant, since the same username may be taken in one tenant and free in another,
+ * and are held as lookup keys (see {@link User#lookupKey}).
+ */
+@Slf4j
+@Component
+public class TakenIdentifiers {
+
+    private final UserRepository userRepository;
+    private final TenancyProperties tenancyProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private volatile boolean ready;
+
+    public TakenIdentifiers(UserRepository userRepository,
+                            TenancyProperties tenancyProperties,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${auth.signup-filter.enabled:true}") boolean enabled,
+                            @Value("${auth.signup-filter.expected-entries:1000000}") long expectedEntries,
+                            @Value("${auth.signup-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.tenancyProperties = tenancyProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.usernames = new BloomFilter(expectedEntries, falsePositiveRate);
+        this.emails = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled) {
+            return;
+        }
+        LongAdder count = new LongAdder();
+        seedFrom(TenantContext.DEFAULT_TENANT, count);
+        // Tenants with their own database are not in the shared users table
+        tenancyProperties.datasources().keySet().forEach(tenant -> seedFrom(tenant, count));
+        ready = true;
+        log.info("Seeded signup filter with {} existing users", count.sum());
+    }
+
+    public boolean mightContainUsername(String usernameKey) {
+        return !ready || usernames.mightContain(TenantContext.qualify(usernameKey));
+    }
+
+    public boolean mightContainEmail(String emailKey) {
+        return !ready || emails.mightContain(TenantContext.qualify(emailKey));
+    }
+
+    public void add(String usernameKey, String emailKey) {
+        usernames.add(TenantContext.qualify(usernameKey));
+        emails.add(TenantContext.qualify(emailKey));
+    }
+
+    private void seedFrom(String tenant, LongAdder count) {
+        TenantContext.runAs(tenant, () -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> taken = userRepository.streamAllQualifiedUsernames()) {
+                taken.forEach(username -> {
+                    usernames.add(toLookupKey(username));
+                    count.increment();
+                });
+            }
+            try (Stream<String> taken = userRepository.streamAllQualifiedEmails()) {
+                taken.forEach(email -> emails.add(toLookupKey(email)));
+            }
+        }));
+    }
+
+    // Derived here rather than read from the key columns, which may not be backfilled yet
+    private static String toLookupKey(String qualified) {
+        int separator = qualified.indexOf(':');
+        return qualified.substring(0, separator + 1) + User.lookupKey(qualified.substring(separator + 1));
+    }
+}
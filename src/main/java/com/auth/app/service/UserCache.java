@@ -0,0 +1,275 @@
+package com.auth.app.service;
+
+import com.auth.app.entity.User;
+import com.auth.app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache of user snapshots keyed by username lookup key (see
+ * {@link User#lookupKey}) and id, partitioned by tenant so a
+ * lookup can only see users of the current tenant. Entries expire after a fixed TTL. Each tenant
+ * keeps at most {@code max-size-per-tenant} entries, dropping its own least recently used one;
+ * when the cache as a whole is full, the entry evicted comes from the tenant holding the most, so
+ * a large tenant scanning its users never pushes a small tenant's users out.
+ */
+@Component
+public class UserCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final int maxSizePerTenant;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserCache(@Value("${auth.user-cache.enabled:true}") boolean enabled,
+                     @Value("${auth.user-cache.max-size:10000}") int maxSize,
+                     @Value("${auth.user-cache.max-size-per-tenant:${auth.user-cache.max-size:10000}}") int maxSizePerTenant,
+                     @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.maxSizePerTenant = Math.min(maxSizePerTenant, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public Optional<CachedUser> getByUsername(String usernameKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Partition partition = partitions.get(TenantContext.current());
+        if (partition == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        partition.lock.lock();
+        try {
+            return partition.lookup(usernameKey);
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    public Optional<CachedUser> getById(Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Partition partition = partitions.get(TenantContext.current());
+        if (partition == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        partition.lock.lock();
+        try {
+            String usernameKey = partition.usernameKeyById.get(id);
+            if (usernameKey == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            return partition.lookup(usernameKey);
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    public void put(User user) {
+        if (!enabled || user.getId() == null) {
+            return;
+        }
+        CachedUser snapshot = CachedUser.from(user);
+        String usernameKey = User.lookupKey(snapshot.username());
+        Partition partition = partitions.computeIfAbsent(TenantContext.current(), tenant -> new Partition());
+        partition.lock.lock();
+        try {
+            partition.removeById(snapshot.id());
+            Entry replaced = partition.byUsernameKey.put(usernameKey, new Entry(snapshot, System.nanoTime() + ttlNanos));
+            if (replaced == null) {
+                size.incrementAndGet();
+            } else {
+                partition.usernameKeyById.remove(replaced.user().id());
+            }
+            partition.usernameKeyById.put(snapshot.id(), usernameKey);
+            while (partition.byUsernameKey.size() > maxSizePerTenant && partition.evictEldest()) {
+                evictions.increment();
+            }
+        } finally {
+            partition.lock.unlock();
+        }
+        while (size.get() > maxSize && evictFromLargest()) {
+            evictions.increment();
+        }
+    }
+
+    public void evict(Long id) {
+        Partition partition = partitions.get(TenantContext.current());
+        if (partition == null) {
+            return;
+        }
+        partition.lock.lock();
+        try {
+            partition.removeById(id);
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (Partition partition : partitions.values()) {
+            partition.lock.lock();
+            try {
+                size.addAndGet(-partition.byUsernameKey.size());
+                partition.byUsernameKey.clear();
+                partition.usernameKeyById.clear();
+            } finally {
+                partition.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Entries held for the current tenant.
+     */
+    public int tenantSize() {
+        Partition partition = partitions.get(TenantContext.current());
+        if (partition == null) {
+            return 0;
+        }
+        partition.lock.lock();
+        try {
+            return partition.byUsernameKey.size();
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private boolean evictFromLargest() {
+        Partition largest = null;
+        int largestSize = 0;
+        for (Partition partition : partitions.values()) {
+            // Sizes are read without the lock; a slightly stale pick is fine
+            int partitionSize = partition.byUsernameKey.size();
+            if (partitionSize > largestSize) {
+                largest = partition;
+                largestSize = partitionSize;
+            }
+        }
+        if (largest == null) {
+            return false;
+        }
+        largest.lock.lock();
+        try {
+            return largest.evictEldest();
+        } finally {
+            largest.lock.unlock();
+        }
+    }
+
+    private final class Partition {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> byUsernameKey = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Long, String> usernameKeyById = new HashMap<>();
+
+        private Optional<CachedUser> lookup(String usernameKey) {
+            Entry entry = byUsernameKey.get(usernameKey);
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            if (entry.expiresAt() - System.nanoTime() < 0) {
+                byUsernameKey.remove(usernameKey);
+                usernameKeyById.remove(entry.user().id());
+                size.decrementAndGet();
+                evictions.increment();
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry.user());
+        }
+
+        private void removeById(Long id) {
+            String usernameKey = usernameKeyById.remove(id);
+            if (usernameKey != null && byUsernameKey.remove(usernameKey) != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        private boolean evictEldest() {
+            Iterator<Map.Entry<String, Entry>> eldest = byUsernameKey.entrySet().iterator();
+            if (!eldest.hasNext()) {
+                return false;
+            }
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            usernameKeyById.remove(entry.user().id());
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    private record Entry(CachedUser user, long expiresAt) {
+    }
+
+    /**
+     * Immutable copy of the user row. Callers get a fresh detached {@link User} from
+     * {@link #toUser()} so cached state can't be mutated in place.
+     */
+    public record CachedUser(Long id, String tenantId, String username, String email, String password,
+                             Boolean enabled, String description, Long createdAt,
+                             Integer failedLoginAttempts, Long lockedUntil) {
+
+        static CachedUser from(User user) {
+            return new CachedUser(user.getId(), user.getTenantId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                    user.getEnabled(), user.getDescription(), user.getCreatedAt(),
+                    user.getFailedLoginAttempts(), user.getLockedUntil());
+        }
+
+        public User toUser() {
+            return User.builder()
+                    .id(id)
+                    .tenantId(tenantId)
+                    .username(username)
+                    .email(email)
+                    .password(password)
+                    .enabled(enabled)
+                    .description(description)
+                    .createdAt(createdAt)
+                    .failedLoginAttempts(failedLoginAttempts)
+                    .lockedUntil(lockedUntil)
+                    .build();
+        }
+    }
+}
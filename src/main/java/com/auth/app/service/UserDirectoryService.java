@@ -0,0 +1,199 @@
+package com.auth.app.service;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.repository.UserSummary;
+import com.auth.app.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Admin listing and export of users. Listings page with keyset cursors rather than offsets, and
+ * exports stream from a forward-only cursor straight to the response, so neither ever holds more
+ * than one page or one fetch of rows in memory.
+ */
+@Service
+public class UserDirectoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String EXPORT_SQL =
+            "select id, username, email, enabled, description, createdAt from users where tenantId = ? order by id";
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public UserDirectoryService(UserRepository userRepository,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${auth.export.fetch-size:1000}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public enum SortOrder {
+        ID, CREATED_AT;
+
+        public static SortOrder parse(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("id")) {
+                return ID;
+            }
+            if (value.equalsIgnoreCase("createdAt") || value.equalsIgnoreCase("created_at")) {
+                return CREATED_AT;
+            }
+            throw new IllegalArgumentException("Unsupported sort order: " + value);
+        }
+    }
+
+    public UserPage listUsers(SortOrder order, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long[] position = decodeCursor(order, cursor);
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<UserSummary> rows = order == SortOrder.ID
+                ? userRepository.findSummariesAfterId(position[1], Limit.of(limit + 1))
+                : userRepository.findSummariesAfterCreatedAt(position[0], position[1], Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new UserPage(rows, null);
+        }
+        List<UserSummary> page = rows.subList(0, limit);
+        return new UserPage(List.copyOf(page), encodeCursor(order, page.get(limit - 1)));
+    }
+
+    /**
+     * Writes every user to {@code out} in id order. Rows are read {@code auth.export.fetch-size}
+     * at a time inside a read-only transaction, which PostgreSQL needs to use a server-side cursor.
+     */
+    public long export(UserImportReader.Format format, Writer out) {
+        Long written = readOnlyTransaction.execute(status -> {
+            try {
+                return format == UserImportReader.Format.CSV ? exportCsv(out) : exportNdjson(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written == null ? 0 : written;
+    }
+
+    private long exportCsv(Writer out) throws IOException {
+        out.write("id,username,email,enabled,description,createdAt\n");
+        long[] count = {0};
+        exportJdbcTemplate.query(EXPORT_SQL, (ResultSet rs) -> {
+            try {
+                out.write(Long.toString(rs.getLong(1)));
+                out.write(',');
+                writeCsvField(out, rs.getString(2));
+                out.write(',');
+                writeCsvField(out, rs.getString(3));
+                out.write(',');
+                out.write(Boolean.toString(rs.getBoolean(4)));
+                out.write(',');
+                writeCsvField(out, rs.getString(5));
+                out.write(',');
+                out.write(Long.toString(rs.getLong(6)));
+                out.write('\n');
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, TenantContext.current());
+        out.flush();
+        return count[0];
+    }
+
+    private long exportNdjson(Writer out) throws IOException {
+        long[] count = {0};
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line instead of Jackson's default space between root values
+            json.setRootValueSeparator(null);
+            exportJdbcTemplate.query(EXPORT_SQL, (ResultSet rs) -> {
+                try {
+                    writeJsonRow(json, rs);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, TenantContext.current());
+        }
+        out.flush();
+        return count[0];
+    }
+
+    private static void writeJsonRow(JsonGenerator json, ResultSet rs) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", rs.getLong(1));
+        json.writeStringField("username", rs.getString(2));
+        json.writeStringField("email", rs.getString(3));
+        json.writeBooleanField("enabled", rs.getBoolean(4));
+        json.writeStringField("description", rs.getString(5));
+        json.writeNumberField("createdAt", rs.getLong(6));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static String encodeCursor(SortOrder order, UserSummary last) {
+        String position = order == SortOrder.ID ? "i:" + last.id() : "c:" + last.createdAt() + ":" + last.id();
+        return CURSOR_ENCODER.encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns {createdAt, id}; an absent cursor starts before the first row
+    private static long[] decodeCursor(SortOrder order, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new long[]{Long.MIN_VALUE, Long.MIN_VALUE};
+        }
+        try {
+            String[] parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (order == SortOrder.ID && parts.length == 2 && parts[0].equals("i")) {
+                return new long[]{Long.MIN_VALUE, Long.parseLong(parts[1])};
+            }
+            if (order == SortOrder.CREATED_AT && parts.length == 3 && parts[0].equals("c")) {
+                return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed base64 or number; reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor for " + order.name().toLowerCase(Locale.ROOT) + " order");
+    }
+
+    public record UserPage(List<UserSummary> users, String nextCursor) {
+    }
+}
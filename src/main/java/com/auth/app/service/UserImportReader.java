@@ -0,0 +1,230 @@
+package com.auth.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Incremental reader for bulk user imports. Only the current record is held in memory, so
+ * files of any size can be streamed straight from a request body or disk. Malformed records
+ * come back as rows carrying an error instead of aborting the read.
+ */
+public abstract class UserImportReader implements Iterator<UserImportReader.Row>, Closeable {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+
+        public static Format fromFileName(String fileName) {
+            return fileName.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+        }
+
+        /**
+         * The format named by {@code value}, {@code csv} or {@code ndjson} in any case.
+         */
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public record Row(long number, String username, String email, String password,
+                      String passwordHash, String description, String error) {
+
+        static Row invalid(long number, String error) {
+            return new Row(number, null, null, null, null, null, error);
+        }
+    }
+
+    protected final BufferedReader reader;
+    private Row next;
+    private boolean done;
+
+    protected UserImportReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    public static UserImportReader open(Format format, Reader reader) {
+        return format == Format.CSV ? new Csv(reader) : new Ndjson(reader);
+    }
+
+    protected abstract Row readRow() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static final class Csv extends UserImportReader {
+
+        private Map<String, Integer> columns;
+        private long recordNumber;
+
+        private Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected Row readRow() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+                }
+            }
+            List<String> record = readRecord();
+            while (record != null && record.size() == 1 && record.get(0).isBlank()) {
+                record = readRecord();
+            }
+            if (record == null) {
+                return null;
+            }
+            recordNumber++;
+            if (record.size() > columns.size()) {
+                return Row.invalid(recordNumber, "Expected " + columns.size() + " columns but found " + record.size());
+            }
+            return new Row(recordNumber, column(record, "username"), column(record, "email"),
+                    column(record, "password"), column(record, "passwordhash"), column(record, "description"), null);
+        }
+
+        private String column(List<String> record, String name) {
+            Integer index = columns.get(name);
+            return index == null || index >= record.size() ? null : blankToNull(record.get(index));
+        }
+
+        // RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Ndjson extends UserImportReader {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private long lineNumber;
+
+        private Ndjson(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected Row readRow() throws IOException {
+            String line = reader.readLine();
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(line);
+            } catch (IOException e) {
+                return Row.invalid(lineNumber, "Malformed JSON");
+            }
+            if (node == null || !node.isObject()) {
+                return Row.invalid(lineNumber, "Expected a JSON object");
+            }
+            return new Row(lineNumber, text(node, "username"), text(node, "email"), text(node, "password"),
+                    text(node, "passwordHash"), text(node, "description"), null);
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : blankToNull(value.asText());
+        }
+    }
+}
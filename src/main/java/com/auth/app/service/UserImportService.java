@@ -0,0 +1,212 @@
+package com.auth.app.service;
+
+import com.auth.app.datasource.DataSourceRouting;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Streams users into the database in JDBC batches. Each chunk is validated with the signup
+ * rules, checked for duplicates with one IN query per column and inserted in one transaction.
+ * A failing row is reported and skipped; it never aborts the rest of the run.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final Pattern ENCODED_PASSWORD_PATTERN =
+            Pattern.compile("^(\\{(bcrypt|argon2|pbkdf2)}.+|\\$2[aby]?\\$\\d{2}\\$.{53})$");
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthService authService;
+    private final TakenIdentifiers takenIdentifiers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedFailures;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             AuthService authService,
+                             TakenIdentifiers takenIdentifiers,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${auth.import.batch-size:500}") int batchSize,
+                             @Value("${auth.import.max-reported-failures:1000}") int maxReportedFailures) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.authService = authService;
+        this.takenIdentifiers = takenIdentifiers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public ImportReport importUsers(Iterator<UserImportReader.Row> rows) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<UserImportReader.Row> chunk = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : progress.processed * 1_000_000_000.0 / elapsedNanos;
+        log.info("Imported {} of {} users in {} ms ({} rows/s)", progress.imported, progress.processed,
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new ImportReport(progress.processed, progress.imported, progress.failed,
+                elapsedNanos / 1_000_000, rowsPerSecond, progress.failures);
+    }
+
+    private void importChunk(List<UserImportReader.Row> chunk, Progress progress) {
+        progress.processed += chunk.size();
+
+        List<UserImportReader.Row> candidates = new ArrayList<>(chunk.size());
+        List<User> users = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (UserImportReader.Row row : chunk) {
+            try {
+                User user = toUser(row);
+                if (!usernames.add(user.getUsernameKey())) {
+                    throw new IllegalArgumentException("Username already exists");
+                }
+                if (!emails.add(user.getEmailKey())) {
+                    throw new IllegalArgumentException("Email already exists");
+                }
+                candidates.add(row);
+                users.add(user);
+            } catch (IllegalArgumentException e) {
+                progress.fail(row.number(), e.getMessage());
+            }
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        // Checked on the primary: a replica may not have applied the previous chunk yet
+        Set<String> takenUsernames = DataSourceRouting.onPrimary(() -> new HashSet<>(userRepository.findExistingUsernameKeys(usernames)));
+        Set<String> takenEmails = DataSourceRouting.onPrimary(() -> new HashSet<>(userRepository.findExistingEmailKeys(emails)));
+        List<User> insertable = new ArrayList<>(users.size());
+        List<UserImportReader.Row> insertableRows = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (takenUsernames.contains(user.getUsernameKey())) {
+                progress.fail(candidates.get(i).number(), "Username already exists");
+            } else if (takenEmails.contains(user.getEmailKey())) {
+                progress.fail(candidates.get(i).number(), "Email already exists");
+            } else {
+                insertable.add(user);
+                insertableRows.add(candidates.get(i));
+            }
+        }
+        if (insertable.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(insertable));
+            insertable.forEach(user -> takenIdentifiers.add(user.getUsernameKey(), user.getEmailKey()));
+            progress.imported += insertable.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer claimed a value after the duplicate check; retry row by row to isolate it
+            for (int i = 0; i < insertable.size(); i++) {
+                User user = insertable.get(i);
+                user.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+                    takenIdentifiers.add(user.getUsernameKey(), user.getEmailKey());
+                    progress.imported++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    progress.fail(insertableRows.get(i).number(), rowFailureReason(rowFailure));
+                }
+            }
+        }
+    }
+
+    private User toUser(UserImportReader.Row row) {
+        if (row.error() != null) {
+            throw new IllegalArgumentException(row.error());
+        }
+        authService.validateUsername(row.username());
+        authService.validateEmail(row.email());
+        authService.validateDescription(row.description());
+
+        String encodedPassword;
+        if (row.passwordHash() != null) {
+            if (!ENCODED_PASSWORD_PATTERN.matcher(row.passwordHash()).matches()) {
+                throw new IllegalArgumentException("Unsupported password hash format");
+            }
+            encodedPassword = row.passwordHash();
+        } else {
+            authService.validatePassword(row.password());
+            encodedPassword = passwordEncoder.encode(row.password());
+        }
+
+        User user = User.builder()
+                .username(row.username().trim())
+                .email(row.email().trim())
+                .password(encodedPassword)
+                .description(row.description())
+                .enabled(true)
+                .build();
+        // Set now so the chunk can be checked for duplicates by key before it is saved
+        user.deriveLookupKeys();
+        return user;
+    }
+
+    // Duplicates are told apart by constraint name; anything else carries the database's own reason
+    private static String rowFailureReason(DataIntegrityViolationException e) {
+        String detail = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        String constraint = detail.toLowerCase(Locale.ROOT);
+        if (constraint.contains(User.USERNAME_CONSTRAINT)) {
+            return "Username already exists";
+        }
+        if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return "Email already exists";
+        }
+        return "Rejected by the database: " + detail.lines().findFirst().orElse(detail);
+    }
+
+    private final class Progress {
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<RowFailure> failures = new ArrayList<>();
+
+        private void fail(long rowNumber, String reason) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(new RowFailure(rowNumber, reason));
+            }
+        }
+    }
+
+    public record RowFailure(long row, String reason) {
+    }
+
+    public record ImportReport(long processed, long imported, long failed, long elapsedMillis,
+                               double rowsPerSecond, List<RowFailure> failures) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.auth.app.service;
+
+import com.auth.app.datasource.DataSourceRouting;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares database lookups of users by username key between concurrent callers, so a burst of
+ * sign-ins or page refreshes for one user borrows one pooled connection instead of one each.
+ * A caller asking for a key that is already being looked up waits for that lookup's result.
+ *
+ * <p>Distinct keys are also grouped: while another lookup query is running, a new one waits up to
+ * {@code batch-window-micros} for more keys of the same tenant (or until {@code max-batch-size}
+ * have arrived) and fetches them all with one {@code in} query. With no query running, a lookup
+ * is sent at once, so a quiet node pays no extra latency.
+ *
+ * <p>Reads that must go to the primary (see {@link ReadYourWrites}) are never shared, since the
+ * query answering them might run on a replica.
+ */
+@Component
+public class UserLookupCoalescer {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<UserCache.CachedUser>>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+    private final AtomicInteger runningQueries = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    public UserLookupCoalescer(UserRepository userRepository,
+                               @Value("${auth.user-lookup.coalescing.enabled:true}") boolean enabled,
+                               @Value("${auth.user-lookup.coalescing.batch-window-micros:1000}") long batchWindowMicros,
+                               @Value("${auth.user-lookup.coalescing.max-batch-size:64}") int maxBatchSize) {
+        if (batchWindowMicros < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("auth.user-lookup.coalescing.batch-window-micros must not be negative "
+                    + "and max-batch-size must be positive");
+        }
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.batchWindowNanos = TimeUnit.MICROSECONDS.toNanos(batchWindowMicros);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * The current tenant's user with {@code usernameKey}, as a detached copy of its own.
+     */
+    public Optional<User> findByUsernameKey(String usernameKey) {
+        requests.increment();
+        if (!enabled || DataSourceRouting.isPrimaryForced()) {
+            queries.increment();
+            return userRepository.findByUsernameKey(usernameKey);
+        }
+
+        String tenant = TenantContext.current();
+        String flightKey = TenantContext.qualify(usernameKey);
+        CompletableFuture<Optional<UserCache.CachedUser>> result = new CompletableFuture<>();
+        CompletableFuture<Optional<UserCache.CachedUser>> running = inFlight.putIfAbsent(flightKey, result);
+        if (running != null) {
+            joined.increment();
+            return await(running);
+        }
+
+        Batch[] opened = new Batch[1];
+        openBatches.compute(tenant, (key, open) -> {
+            Batch batch = open == null ? opened[0] = new Batch() : open;
+            batch.members.put(usernameKey, result);
+            if (batch.members.size() < maxBatchSize) {
+                return batch;
+            }
+            // Full: whoever opened it sends it now, and the next key starts a new one
+            batch.full.countDown();
+            return null;
+        });
+        if (opened[0] != null) {
+            send(tenant, opened[0]);
+        }
+        return await(result);
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getJoinedCount() {
+        return joined.sum();
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    private void send(String tenant, Batch batch) {
+        try {
+            if (batchWindowNanos > 0 && runningQueries.get() > 0) {
+                batch.full.await(batchWindowNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Closed from here on: later keys open a new batch
+        openBatches.remove(tenant, batch);
+
+        List<String> keys = new ArrayList<>(batch.members.keySet());
+        runningQueries.incrementAndGet();
+        try {
+            queries.increment();
+            Map<String, UserCache.CachedUser> found = new HashMap<>();
+            if (keys.size() == 1) {
+                userRepository.findByUsernameKey(keys.get(0))
+                        .ifPresent(user -> found.put(keys.get(0), UserCache.CachedUser.from(user)));
+            } else {
+                for (User user : userRepository.findByUsernameKeyIn(keys)) {
+                    found.put(user.getUsernameKey(), UserCache.CachedUser.from(user));
+                }
+            }
+            batch.members.forEach((key, future) -> future.complete(Optional.ofNullable(found.get(key))));
+        } catch (RuntimeException | Error e) {
+            batch.members.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        } finally {
+            runningQueries.decrementAndGet();
+            batch.members.forEach((key, future) -> inFlight.remove(TenantContext.qualify(key), future));
+        }
+    }
+
+    private static Optional<User> await(CompletableFuture<Optional<UserCache.CachedUser>> result) {
+        try {
+            return result.join().map(UserCache.CachedUser::toUser);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Keys of one tenant waiting to be looked up together. Members are only added inside
+     * {@code openBatches.compute}, and read by the sender after it has removed the batch there.
+     */
+    private static final class Batch {
+
+        private final Map<String, CompletableFuture<Optional<UserCache.CachedUser>>> members = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
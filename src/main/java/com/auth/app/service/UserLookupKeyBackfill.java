@@ -0,0 +1,163 @@
+package com.auth.app.service;
+
+import com.auth.app.entity.User;
+import com.auth.app.tenant.TenancyProperties;
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Fills in the lookup keys of users created before the keys existed, one batch at a time on a
+ * background thread once the app is serving, in the shared database and in each tenant database.
+ * Until it has finished, a lookup that misses by key retries by exact username.
+ *
+ * <p>A user whose key is already taken in its tenant (an {@code Alice} next to an {@code alice})
+ * is left without keys and logged, and the fallback then stays on. Rename one of the two and
+ * restart to finish.
+ */
+@Slf4j
+@Component
+public class UserLookupKeyBackfill {
+
+    // Native, so every tenant's rows in the database are covered
+    private static final String SELECT_SQL =
+            "select id, tenantId, username, email from users where usernameKey is null and id > ? order by id";
+    private static final String UPDATE_SQL =
+            "update users set usernameKey = ?, emailKey = ? where id = ? and usernameKey is null";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) ->
+            new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TenancyProperties tenancyProperties;
+    private final boolean enabled;
+    private final long pauseMillis;
+    private volatile boolean complete;
+
+    public UserLookupKeyBackfill(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 TenancyProperties tenancyProperties,
+                                 @Value("${auth.user-keys.backfill.enabled:true}") boolean enabled,
+                                 @Value("${auth.user-keys.backfill.batch-size:1000}") int batchSize,
+                                 @Value("${auth.user-keys.backfill.pause-millis:10}") long pauseMillis) {
+        if (batchSize < 1 || pauseMillis < 0) {
+            throw new IllegalArgumentException("auth.user-keys.backfill.batch-size must be positive and pause-millis not negative");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(batchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tenancyProperties = tenancyProperties;
+        this.enabled = enabled;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                // Lookups keep falling back to exact usernames; the next start picks up where this stopped
+                log.warn("Lookup key backfill stopped: {}", e.getMessage());
+            }
+        }, "user-key-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Backfills every database and returns the number of users left without keys.
+     */
+    public long run() {
+        long[] counts = new long[2];
+        backfill(TenantContext.DEFAULT_TENANT, counts);
+        // Tenants with their own database are not in the shared users table
+        tenancyProperties.datasources().keySet().forEach(tenant -> backfill(tenant, counts));
+        complete = counts[1] == 0;
+        if (counts[0] > 0 || counts[1] > 0) {
+            log.info("Backfilled lookup keys for {} users, {} left without keys", counts[0], counts[1]);
+        }
+        return counts[1];
+    }
+
+    /**
+     * Whether every user has lookup keys, so a miss by key is final.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private void backfill(String tenant, long[] counts) {
+        TenantContext.runAs(tenant, () -> {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Row> batch = transactionTemplate.execute(status -> jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, from));
+                if (batch == null || batch.isEmpty()) {
+                    return;
+                }
+                afterId = batch.get(batch.size() - 1).id();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch,
+                            batch.size(), (ps, row) -> {
+                                ps.setString(1, User.lookupKey(row.username()));
+                                ps.setString(2, User.lookupKey(row.email()));
+                                ps.setLong(3, row.id());
+                            }));
+                    counts[0] += batch.size();
+                } catch (DataIntegrityViolationException e) {
+                    // Some key in the batch is taken; redo it row by row to find which
+                    for (Row row : batch) {
+                        if (update(row)) {
+                            counts[0]++;
+                        } else {
+                            counts[1]++;
+                        }
+                    }
+                }
+                pause();
+            }
+        });
+    }
+
+    private boolean update(Row row) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(UPDATE_SQL,
+                    User.lookupKey(row.username()), User.lookupKey(row.email()), row.id()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("User {} in tenant {} keeps no lookup keys: its username or email matches another user's "
+                    + "once case and Unicode form are ignored, or is too long once normalized", row.id(), row.tenantId());
+            return false;
+        }
+    }
+
+    private void pause() {
+        if (pauseMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+
+    private record Row(long id, String tenantId, String username, String email) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.auth.app.session;
+
+import com.auth.app.entity.User;
+import com.auth.app.tenant.TenantContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "auth.session.mode", havingValue = "http", matchIfMissing = true)
+public class HttpSessionLoginSessions implements LoginSessions {
+
+    @Override
+    public Optional<SessionUser> currentUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return Optional.empty();
+        }
+        String username = (String) session.getAttribute("username");
+        // A session only signs its user in to the tenant they signed in to
+        if (username == null || !TenantContext.current().equals(session.getAttribute("tenant"))) {
+            return Optional.empty();
+        }
+        return Optional.of(new SessionUser((Long) session.getAttribute("userId"), username));
+    }
+
+    @Override
+    public void signIn(HttpServletRequest request, HttpServletResponse response, User user) {
+        HttpSession session = request.getSession();
+        session.setAttribute("tenant", TenantContext.current());
+        session.setAttribute("userId", user.getId());
+        session.setAttribute("username", user.getUsername());
+    }
+
+    @Override
+    public void signOut(HttpServletRequest request, HttpServletResponse response) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+    }
+}
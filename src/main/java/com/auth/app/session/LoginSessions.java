@@ -0,0 +1,23 @@
+package com.auth.app.session;
+
+import com.auth.app.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.Optional;
+
+/**
+ * Tracks who is signed in. Backed by the servlet {@code HttpSession} by default, or by a signed
+ * cookie when {@code auth.session.mode=stateless}.
+ */
+public interface LoginSessions {
+
+    Optional<SessionUser> currentUser(HttpServletRequest request);
+
+    void signIn(HttpServletRequest request, HttpServletResponse response, User user);
+
+    void signOut(HttpServletRequest request, HttpServletResponse response);
+
+    record SessionUser(Long userId, String username) {
+    }
+}
@@ -0,0 +1,462 @@
+package com.auth.app.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring Session repository shared by all nodes through the {@code http_sessions} table.
+ * <ul>
+ *     <li>Each node keeps a near cache of session state, so most requests never touch the database.</li>
+ *     <li>New sessions, attribute changes (sign-in) and deletes (sign-out) are written before the
+ *     response, so the next request sees them whichever node it lands on. An attribute change is
+ *     applied to the stored attributes under the row's version, so changes made at the same time on
+ *     two nodes both survive.</li>
+ *     <li>Requests that only touch a session are written behind in JDBC batches by {@link #flush()},
+ *     once the last-access time drifts by the touch interval.</li>
+ *     <li>Attributes are serialized one by one and only deserialized when a request reads them.</li>
+ *     <li>{@link #purgeExpiredSessions()} removes expired rows with one bulk delete.</li>
+ * </ul>
+ */
+@Slf4j
+public class NearCacheJdbcSessionRepository implements SessionRepository<NearCacheJdbcSessionRepository.StoredSession> {
+
+    private static final String SELECT = "SELECT creation_time, last_access_time, max_inactive_seconds, attributes, version "
+            + "FROM http_sessions WHERE session_id = ?";
+    private static final String UPDATE_FULL = "UPDATE http_sessions SET last_access_time = ?, max_inactive_seconds = ?, "
+            + "expiry_time = ?, attributes = ?, version = ? WHERE session_id = ? AND version = ?";
+    private static final String UPDATE_ACCESS = "UPDATE http_sessions SET last_access_time = ?, max_inactive_seconds = ?, "
+            + "expiry_time = ? WHERE session_id = ?";
+    private static final String INSERT = "INSERT INTO http_sessions (session_id, creation_time, last_access_time, "
+            + "max_inactive_seconds, expiry_time, attributes, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String DELETE = "DELETE FROM http_sessions WHERE session_id = ?";
+    private static final String PURGE = "DELETE FROM http_sessions WHERE expiry_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final long nearCacheTtlMillis;
+    private final int nearCacheMaxSize;
+    private final long touchIntervalMillis;
+
+    private final DefaultSerializer serializer = new DefaultSerializer();
+    private final DefaultDeserializer deserializer = new DefaultDeserializer(getClass().getClassLoader());
+    private final Map<String, SessionState> states = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public NearCacheJdbcSessionRepository(DataSource dataSource, Duration defaultMaxInactiveInterval,
+                                          Duration nearCacheTtl, int nearCacheMaxSize, Duration touchInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.nearCacheTtlMillis = nearCacheTtl.toMillis();
+        this.nearCacheMaxSize = nearCacheMaxSize;
+        this.touchIntervalMillis = touchInterval.toMillis();
+    }
+
+    @Override
+    public StoredSession createSession() {
+        long now = System.currentTimeMillis();
+        SessionState state = new SessionState(UUID.randomUUID().toString(), now, now,
+                (int) defaultMaxInactiveInterval.toSeconds(), Map.of(), false, 0, now, now);
+        return new StoredSession(state);
+    }
+
+    @Override
+    public void save(StoredSession session) {
+        long now = System.currentTimeMillis();
+        if (!session.getId().equals(session.base.id())) {
+            deleteById(session.base.id());
+        }
+        Map<String, byte[]> changed = serializeChanges(session);
+        if (!changed.isEmpty() || session.maxInactiveChanged || !session.base.persisted()
+                || !session.getId().equals(session.base.id())) {
+            SessionState written = write(session, changed, now);
+            session.reset(written != null ? written : session.base);
+        } else {
+            SessionState merged = states.compute(session.getId(), (id, current) ->
+                    (current != null ? current : session.base).merge(session, changed, now));
+            if (merged.lastAccessedTime() - merged.persistedAccessTime() >= touchIntervalMillis) {
+                dirty.add(merged.id());
+            }
+            session.reset(merged);
+        }
+        trimNearCache(now);
+    }
+
+    @Override
+    public StoredSession findById(String id) {
+        long now = System.currentTimeMillis();
+        SessionState state = states.get(id);
+        if (state == null || (!dirty.contains(id) && now - state.loadedAt() > nearCacheTtlMillis)) {
+            state = load(id, now);
+            if (state == null) {
+                states.remove(id);
+                return null;
+            }
+            SessionState loaded = state;
+            state = states.compute(id, (key, current) -> current != null && dirty.contains(key) ? current : loaded);
+        }
+        if (state.isExpired(now)) {
+            deleteById(id);
+            return null;
+        }
+        return new StoredSession(state);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        dirty.remove(id);
+        states.remove(id);
+        jdbcTemplate.update(DELETE, id);
+    }
+
+    /**
+     * Writes the last-access times of touched sessions in one JDBC batch. A session whose row is
+     * gone was signed out or purged by another node, and is dropped here rather than written back.
+     */
+    @Scheduled(fixedDelayString = "${auth.session.jdbc.flush-interval-ms:500}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<SessionState> pending = new ArrayList<>();
+        for (Iterator<String> ids = dirty.iterator(); ids.hasNext(); ) {
+            String id = ids.next();
+            ids.remove();
+            SessionState state = states.get(id);
+            if (state != null) {
+                pending.add(state);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(pending.size());
+        for (SessionState state : pending) {
+            args.add(new Object[]{state.lastAccessedTime(), state.maxInactiveSeconds(), state.expiryTime(), state.id()});
+        }
+        try {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_ACCESS, args);
+            for (int i = 0; i < counts.length; i++) {
+                SessionState state = pending.get(i);
+                if (counts[i] == 0) {
+                    states.remove(state.id(), state);
+                } else {
+                    // A newer save may have replaced the state meanwhile and keeps its own access time
+                    states.computeIfPresent(state.id(), (id, current) -> current == state ? state.accessWritten() : current);
+                }
+            }
+            log.debug("Flushed last access of {} sessions", pending.size());
+        } catch (DataAccessException e) {
+            // Keep the sessions dirty so the next flush retries them
+            pending.forEach(state -> dirty.add(state.id()));
+            log.warn("Session flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.jdbc.purge-interval-ms:60000}")
+    public int purgeExpiredSessions() {
+        long now = System.currentTimeMillis();
+        states.values().removeIf(state -> state.isExpired(now) && !dirty.contains(state.id()));
+        int purged = jdbcTemplate.update(PURGE, now);
+        if (purged > 0) {
+            log.debug("Purged {} expired sessions", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Inserts a new session, or applies {@code session}'s changes to the stored row. The update only
+     * succeeds against the version this node last read; when another node wrote in between, its row
+     * is read back and the changes applied to that. Returns null when the row is gone, so a session
+     * signed out elsewhere is not brought back.
+     */
+    private SessionState write(StoredSession session, Map<String, byte[]> changed, long now) {
+        String id = session.getId();
+        SessionState current = states.get(id);
+        SessionState base = current != null ? current : id.equals(session.base.id()) ? session.base : session.base.withId(id);
+        SessionState merged = base.merge(session, changed, now);
+        if (!merged.persisted()) {
+            jdbcTemplate.update(INSERT, id, merged.creationTime(), merged.lastAccessedTime(), merged.maxInactiveSeconds(),
+                    merged.expiryTime(), encodeAttributes(merged.attributes()));
+            return cache(merged.written(0));
+        }
+        while (jdbcTemplate.update(UPDATE_FULL, merged.lastAccessedTime(), merged.maxInactiveSeconds(), merged.expiryTime(),
+                encodeAttributes(merged.attributes()), merged.version() + 1, id, merged.version()) == 0) {
+            SessionState stored = load(id, now);
+            if (stored == null) {
+                dirty.remove(id);
+                states.remove(id);
+                return null;
+            }
+            merged = stored.merge(session, changed, now);
+        }
+        return cache(merged.written(merged.version() + 1));
+    }
+
+    // Concurrent writes from this node land in version order, so the newest row state is kept
+    private SessionState cache(SessionState written) {
+        return states.merge(written.id(), written, (current, next) -> current.version() > next.version() ? current : next);
+    }
+
+    private SessionState load(String id, long now) {
+        List<SessionState> rows = jdbcTemplate.query(SELECT, (rs, rowNum) -> new SessionState(id,
+                rs.getLong("creation_time"), rs.getLong("last_access_time"), rs.getInt("max_inactive_seconds"),
+                decodeAttributes(rs.getBytes("attributes")), true, rs.getLong("version"),
+                rs.getLong("last_access_time"), now), id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void trimNearCache(long now) {
+        if (states.size() <= nearCacheMaxSize) {
+            return;
+        }
+        states.values().removeIf(state -> now - state.loadedAt() > nearCacheTtlMillis && !dirty.contains(state.id()));
+        Iterator<SessionState> iterator = states.values().iterator();
+        while (states.size() > nearCacheMaxSize && iterator.hasNext()) {
+            if (!dirty.contains(iterator.next().id())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private Map<String, byte[]> serializeChanges(StoredSession session) {
+        Map<String, byte[]> changed = new HashMap<>();
+        session.changes.forEach((name, value) -> changed.put(name, value == null ? null : serialize(value)));
+        return changed;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return serializer.serializeToByteArray(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Session attribute is not serializable: " + value.getClass().getName(), e);
+        }
+    }
+
+    private Object deserialize(byte[] bytes) {
+        try {
+            return deserializer.deserializeFromByteArray(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not deserialize session attribute", e);
+        }
+    }
+
+    static byte[] encodeAttributes(Map<String, byte[]> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, byte[]> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                out.writeInt(attribute.getValue().length);
+                out.write(attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Map<String, byte[]> decodeAttributes(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return Map.of();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int count = in.readInt();
+            Map<String, byte[]> attributes = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                attributes.put(name, value);
+            }
+            return Collections.unmodifiableMap(attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Canonical per-node state of a session. Attribute values stay serialized.
+     */
+    private record SessionState(String id, long creationTime, long lastAccessedTime, int maxInactiveSeconds,
+                                Map<String, byte[]> attributes, boolean persisted, long version,
+                                long persistedAccessTime, long loadedAt) {
+
+        long expiryTime() {
+            return lastAccessedTime + maxInactiveSeconds * 1000L;
+        }
+
+        boolean isExpired(long now) {
+            return maxInactiveSeconds >= 0 && expiryTime() <= now;
+        }
+
+        SessionState withId(String newId) {
+            return new SessionState(newId, creationTime, lastAccessedTime, maxInactiveSeconds, attributes,
+                    false, 0, persistedAccessTime, loadedAt);
+        }
+
+        SessionState merge(StoredSession session, Map<String, byte[]> changed, long now) {
+            Map<String, byte[]> mergedAttributes = attributes;
+            if (!changed.isEmpty()) {
+                mergedAttributes = new HashMap<>(attributes);
+                for (Map.Entry<String, byte[]> change : changed.entrySet()) {
+                    if (change.getValue() == null) {
+                        mergedAttributes.remove(change.getKey());
+                    } else {
+                        mergedAttributes.put(change.getKey(), change.getValue());
+                    }
+                }
+                mergedAttributes = Collections.unmodifiableMap(mergedAttributes);
+            }
+            return new SessionState(id, creationTime, Math.max(lastAccessedTime, session.lastAccessedTime),
+                    session.maxInactiveSeconds, mergedAttributes, persisted, version, persistedAccessTime, now);
+        }
+
+        SessionState written(long newVersion) {
+            return new SessionState(id, creationTime, lastAccessedTime, maxInactiveSeconds, attributes,
+                    true, newVersion, lastAccessedTime, loadedAt);
+        }
+
+        SessionState accessWritten() {
+            return new SessionState(id, creationTime, lastAccessedTime, maxInactiveSeconds, attributes,
+                    persisted, version, lastAccessedTime, loadedAt);
+        }
+    }
+
+    /**
+     * Per-request view of a session. Reads fall through to the serialized state and are memoized;
+     * writes are recorded as changes and merged into the shared state on {@link #save}.
+     */
+    public final class StoredSession implements Session {
+
+        private SessionState base;
+        private String id;
+        private long lastAccessedTime;
+        private int maxInactiveSeconds;
+        private boolean maxInactiveChanged;
+        private final Map<String, Object> changes = new HashMap<>();
+        private final Map<String, Object> loaded = new HashMap<>();
+
+        private StoredSession(SessionState state) {
+            reset(state);
+        }
+
+        private void reset(SessionState state) {
+            this.base = state;
+            this.id = state.id();
+            this.lastAccessedTime = state.lastAccessedTime();
+            this.maxInactiveSeconds = state.maxInactiveSeconds();
+            this.maxInactiveChanged = false;
+            this.changes.clear();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            // Every attribute moves to the new row, so load them all into the change set
+            for (String name : getAttributeNames()) {
+                changes.putIfAbsent(name, getAttribute(name));
+            }
+            id = UUID.randomUUID().toString();
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String name) {
+            if (changes.containsKey(name)) {
+                return (T) changes.get(name);
+            }
+            return (T) loaded.computeIfAbsent(name, key -> {
+                byte[] bytes = base.attributes().get(key);
+                return bytes == null ? null : deserialize(bytes);
+            });
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            Set<String> names = new HashSet<>(base.attributes().keySet());
+            changes.forEach((name, value) -> {
+                if (value == null) {
+                    names.remove(name);
+                } else {
+                    names.add(name);
+                }
+            });
+            return names;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            changes.put(name, value);
+            loaded.remove(name);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            setAttribute(name, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return Instant.ofEpochMilli(base.creationTime());
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            this.lastAccessedTime = lastAccessedTime.toEpochMilli();
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return Instant.ofEpochMilli(lastAccessedTime);
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            int seconds = (int) interval.toSeconds();
+            maxInactiveChanged |= seconds != maxInactiveSeconds;
+            this.maxInactiveSeconds = seconds;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return Duration.ofSeconds(maxInactiveSeconds);
+        }
+
+        @Override
+        public boolean isExpired() {
+            return maxInactiveSeconds >= 0
+                    && lastAccessedTime + maxInactiveSeconds * 1000L <= System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.auth.app.session;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class SessionCookies {
+
+    static final String COOKIE_NAME = "AUTH_TOKEN";
+
+    private final SessionTokenService sessionTokenService;
+    private final boolean secure;
+
+    public SessionCookies(SessionTokenService sessionTokenService,
+                          @Value("${server.servlet.session.cookie.secure:false}") boolean secure) {
+        this.sessionTokenService = sessionTokenService;
+        this.secure = secure;
+    }
+
+    public String read(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    public void write(HttpServletResponse response, String token) {
+        add(response, token, Duration.ofMillis(sessionTokenService.getTimeToLiveMillis()));
+    }
+
+    public void clear(HttpServletResponse response) {
+        add(response, "", Duration.ZERO);
+    }
+
+    private void add(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
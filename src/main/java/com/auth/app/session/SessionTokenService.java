@@ -0,0 +1,203 @@
+package com.auth.app.session;
+
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.ResultSet;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed session tokens of the form
+ * {@code base64url(payload).base64url(signature)}. The token id stays the same across rolling
+ * refreshes, so revoking it on logout also invalidates every refreshed copy. Tokens are issued for
+ * the current tenant and only verify for that tenant.
+ *
+ * <p>Revoked ids are written to the shared {@code revoked_session_tokens} table and kept in memory,
+ * so verifying never touches the database. Each node reads the ids revoked elsewhere every
+ * {@code auth.session.revocation-sync-interval-ms}; until then another node's logout is not seen.
+ */
+@Slf4j
+@Service
+public class SessionTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final long REVOCATION_SWEEP_INTERVAL_MILLIS = 60_000;
+    // Rows are read back from a little before the last sync, for clocks that differ between nodes
+    private static final long REVOCATION_CLOCK_SKEW_MILLIS = 60_000;
+
+    private final SecretKeySpec key;
+    // Pooled rather than thread-local: with virtual threads every request is a new thread,
+    // so a ThreadLocal would build a fresh Mac per request
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+    private final long timeToLiveMillis;
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private volatile long lastRevocationSweep;
+    private volatile long lastRevocationSync;
+
+    // Revocations go to the primary pool past tenant routing, like the JDBC session store
+    public SessionTokenService(@Value("${auth.session.token-secret:}") String secret,
+                               @Value("${server.servlet.session.timeout:1800}") String sessionTimeout,
+                               @Value("${auth.session.mode:http}") String sessionMode,
+                               ReadWriteRoutingDataSource routingDataSource) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // Each node would only accept its own cookies, so signing in would not survive a
+            // request landing on another node
+            if ("stateless".equals(sessionMode)) {
+                throw new IllegalArgumentException(
+                        "auth.session.token-secret must be set when auth.session.mode=stateless");
+            }
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("auth.session.token-secret is not set; using a random key, so API tokens are only valid "
+                    + "on this node until restart");
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.timeToLiveMillis = DurationStyle.detectAndParse(sessionTimeout, ChronoUnit.SECONDS).toMillis();
+        this.jdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    public String issue(Long userId, String username) {
+        long now = System.currentTimeMillis();
+        return encode(new SessionToken(userId, username, TenantContext.current(), UUID.randomUUID().toString(),
+                now, now + timeToLiveMillis));
+    }
+
+    public String refresh(SessionToken token) {
+        long now = System.currentTimeMillis();
+        return encode(new SessionToken(token.userId(), token.username(), token.tenant(), token.tokenId(),
+                now, now + timeToLiveMillis));
+    }
+
+    public Optional<SessionToken> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] fields = new String(payload, StandardCharsets.UTF_8).split(":", 6);
+            if (fields.length != 6) {
+                return Optional.empty();
+            }
+            SessionToken parsed = new SessionToken(Long.parseLong(fields[0]), fields[5], fields[4], fields[3],
+                    Long.parseLong(fields[2]), Long.parseLong(fields[1]));
+            if (parsed.expiresAt() <= System.currentTimeMillis() || revokedTokenIds.containsKey(parsed.tokenId())
+                    || !parsed.tenant().equals(TenantContext.current())) {
+                return Optional.empty();
+            }
+            return Optional.of(parsed);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tokens past half their lifetime get re-issued so active users are never logged out mid-session.
+     */
+    public boolean needsRefresh(SessionToken token) {
+        return token.expiresAt() - System.currentTimeMillis() < timeToLiveMillis / 2;
+    }
+
+    public void revoke(SessionToken token) {
+        // Entries only need to outlive the token itself, which keeps the list small
+        long now = System.currentTimeMillis();
+        if (now - lastRevocationSweep > REVOCATION_SWEEP_INTERVAL_MILLIS) {
+            lastRevocationSweep = now;
+            revokedTokenIds.values().removeIf(expiresAt -> expiresAt <= now);
+        }
+        revokedTokenIds.put(token.tokenId(), token.expiresAt());
+        try {
+            jdbcTemplate.update("insert into revoked_session_tokens (tokenId, expiresAt, revokedAt) values (?, ?, ?)",
+                    token.tokenId(), token.expiresAt(), now);
+        } catch (DuplicateKeyException e) {
+            // Already revoked, by a refreshed copy or a repeated logout
+        }
+    }
+
+    /**
+     * Picks up the token ids other nodes revoked since the last run, and drops the rows of tokens
+     * that have expired by now.
+     */
+    @Scheduled(fixedDelayString = "${auth.session.revocation-sync-interval-ms:5000}")
+    public void syncRevocations() {
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.query("select tokenId, expiresAt from revoked_session_tokens "
+                            + "where revokedAt >= ? and expiresAt > ?",
+                    (ResultSet rs) -> {
+                        revokedTokenIds.put(rs.getString(1), rs.getLong(2));
+                    }, lastRevocationSync - REVOCATION_CLOCK_SKEW_MILLIS, now);
+            lastRevocationSync = now;
+            jdbcTemplate.update("delete from revoked_session_tokens where expiresAt <= ?", now);
+        } catch (DataAccessException e) {
+            // The next run reads from the same point again
+            log.warn("Could not read revoked session tokens: {}", e.getMessage());
+        }
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    private String encode(SessionToken token) {
+        byte[] payload = (token.userId() + ":" + token.expiresAt() + ":" + token.issuedAt() + ":"
+                + token.tokenId() + ":" + token.tenant() + ":" + token.username()).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macs.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            return mac.doFinal(payload);
+        } finally {
+            macs.offer(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public record SessionToken(Long userId, String username, String tenant, String tokenId, long issuedAt, long expiresAt) {
+    }
+}
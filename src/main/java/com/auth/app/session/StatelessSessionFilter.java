@@ -0,0 +1,47 @@
+package com.auth.app.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Verifies the session cookie once per request, exposes the verified token as a request
+ * attribute and rolls the cookie forward once it is past half its lifetime. Invalid, expired or
+ * revoked cookies are cleared.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.session.mode", havingValue = "stateless")
+public class StatelessSessionFilter extends OncePerRequestFilter {
+
+    static final String TOKEN_ATTRIBUTE = StatelessSessionFilter.class.getName() + ".TOKEN";
+
+    private final SessionTokenService sessionTokenService;
+    private final SessionCookies sessionCookies;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cookie = sessionCookies.read(request);
+        if (cookie != null && !cookie.isEmpty()) {
+            Optional<SessionTokenService.SessionToken> token = sessionTokenService.verify(cookie);
+            if (token.isPresent()) {
+                request.setAttribute(TOKEN_ATTRIBUTE, token.get());
+                if (sessionTokenService.needsRefresh(token.get())) {
+                    sessionCookies.write(response, sessionTokenService.refresh(token.get()));
+                }
+            } else {
+                sessionCookies.clear(response);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
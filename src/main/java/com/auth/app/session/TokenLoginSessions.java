@@ -0,0 +1,48 @@
+package com.auth.app.session;
+
+import com.auth.app.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Stateless sign-in: the identity lives in a signed cookie that {@link StatelessSessionFilter}
+ * verifies on every request, so no session state is kept on any node.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.session.mode", havingValue = "stateless")
+public class TokenLoginSessions implements LoginSessions {
+
+    private final SessionTokenService sessionTokenService;
+    private final SessionCookies sessionCookies;
+
+    @Override
+    public Optional<SessionUser> currentUser(HttpServletRequest request) {
+        return currentToken(request).map(token -> new SessionUser(token.userId(), token.username()));
+    }
+
+    @Override
+    public void signIn(HttpServletRequest request, HttpServletResponse response, User user) {
+        String token = sessionTokenService.issue(user.getId(), user.getUsername());
+        sessionCookies.write(response, token);
+        sessionTokenService.verify(token)
+                .ifPresent(verified -> request.setAttribute(StatelessSessionFilter.TOKEN_ATTRIBUTE, verified));
+    }
+
+    @Override
+    public void signOut(HttpServletRequest request, HttpServletResponse response) {
+        currentToken(request).ifPresent(sessionTokenService::revoke);
+        request.removeAttribute(StatelessSessionFilter.TOKEN_ATTRIBUTE);
+        sessionCookies.clear(response);
+    }
+
+    private Optional<SessionTokenService.SessionToken> currentToken(HttpServletRequest request) {
+        return Optional.ofNullable(
+                (SessionTokenService.SessionToken) request.getAttribute(StatelessSessionFilter.TOKEN_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,52 @@
+package com.auth.app.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How requests are mapped to tenants and where each tenant's users are stored. Nested maps are
+ * why this is bound as a whole rather than through {@code @Value} like the other settings.
+ *
+ * @param header       request header naming the tenant on hosts without a mapping; blank to ignore it
+ * @param tenants      tenant ids that are accepted besides the default and those named by hosts or
+ *                     datasources; nothing else is, so per-tenant state only grows with this config
+ * @param hosts        tenant for each host name, taking precedence over the header
+ * @param datasources  tenants whose users live in a database or schema of their own
+ * @param sharedPool   limits on the pool the remaining tenants share
+ */
+@ConfigurationProperties("auth.tenancy")
+public record TenancyProperties(@DefaultValue("X-Tenant-Id") String header,
+                                @DefaultValue Set<String> tenants,
+                                @DefaultValue Map<String, String> hosts,
+                                @DefaultValue Map<String, TenantDataSource> datasources,
+                                @DefaultValue SharedPool sharedPool) {
+
+    public TenancyProperties {
+        tenants.forEach(TenantContext::validate);
+        hosts.values().forEach(TenantContext::validate);
+        datasources.keySet().forEach(TenantContext::validate);
+    }
+
+    public boolean isKnown(String tenant) {
+        return TenantContext.DEFAULT_TENANT.equals(tenant) || tenants.contains(tenant)
+                || datasources.containsKey(tenant) || hosts.containsValue(tenant);
+    }
+
+    /**
+     * A dedicated database for one tenant. Credentials default to the primary's.
+     */
+    public record TenantDataSource(String url, String username, String password,
+                                   @DefaultValue("5") int maximumPoolSize) {
+    }
+
+    /**
+     * @param maxConnectionsPerTenant connections of the shared pool one tenant may hold at once; 0 for no limit
+     * @param acquireTimeoutMs        how long a tenant at its limit waits for one of its connections
+     */
+    public record SharedPool(@DefaultValue("0") int maxConnectionsPerTenant,
+                             @DefaultValue("5000") long acquireTimeoutMs) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.auth.app.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. Set per request by {@link TenantFilter} and carried
+ * onto the password hashing pool by {@link #wrap(Runnable)}; threads outside a request work for
+ * {@link #DEFAULT_TENANT}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * Switches this thread to {@code tenant} until the returned scope is closed, which restores
+     * the previous tenant.
+     */
+    public static Scope enter(String tenant) {
+        String previous = CURRENT.get();
+        CURRENT.set(validate(tenant));
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} on behalf of {@code tenant}.
+     */
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        try (Scope ignored = enter(tenant)) {
+            return action.get();
+        }
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Binds {@code task} to the calling thread's tenant, for handing work to another thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        String tenant = current();
+        return () -> runAs(tenant, task);
+    }
+
+    /**
+     * Qualifies a per-user key, such as a lower-cased username, with the current tenant.
+     */
+    public static String qualify(String key) {
+        return current() + ':' + key;
+    }
+
+    public static boolean isValid(String tenant) {
+        return tenant != null && TENANT_ID.matcher(tenant).matches();
+    }
+
+    public static String validate(String tenant) {
+        if (!isValid(tenant)) {
+            throw new IllegalArgumentException("Tenant ids are 1-64 lower-case letters, digits, '-' or '_'");
+        }
+        return tenant;
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
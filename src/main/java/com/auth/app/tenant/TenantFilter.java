@@ -0,0 +1,71 @@
+package com.auth.app.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Resolves the tenant of each request before security and session handling run: from the host
+ * name when it is mapped in {@code auth.tenancy.hosts}, otherwise from the tenant header, otherwise
+ * the default tenant. Malformed ids are rejected with 400 and ids that are not configured (see
+ * {@link TenancyProperties#isKnown}) with 404.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenancyProperties tenancyProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = resolve(request);
+        if (!TenantContext.isValid(tenant)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Malformed tenant id");
+            return;
+        }
+        if (!tenancyProperties.isKnown(tenant)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown tenant");
+            return;
+        }
+        try (TenantContext.Scope ignored = TenantContext.enter(tenant)) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    // Async dispatches finish sign-ins on another thread, which needs the tenant too
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    private String resolve(HttpServletRequest request) {
+        String mapped = tenancyProperties.hosts().get(request.getServerName().toLowerCase(Locale.ROOT));
+        if (mapped != null) {
+            return mapped;
+        }
+        String header = tenancyProperties.header();
+        if (header != null && !header.isBlank()) {
+            String requested = request.getHeader(header);
+            if (requested != null && !requested.isBlank()) {
+                return requested.trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return TenantContext.DEFAULT_TENANT;
+    }
+}
@@ -0,0 +1,20 @@
+package com.auth.app.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands Hibernate the current tenant, which it writes into and filters every query on the
+ * {@code @TenantId} column of {@link com.auth.app.entity.User}.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+}
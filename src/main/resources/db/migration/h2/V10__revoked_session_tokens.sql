@@ -0,0 +1,11 @@
+-- Ids of signed session and API tokens revoked by logout. Each node reads new rows every
+-- auth.session.revocation-sync-interval-ms, so a token signed out on one node is refused by all.
+-- A row is deleted once its token would have expired anyway.
+create table revoked_session_tokens (
+    tokenId varchar(36) not null,
+    expiresAt bigint not null,
+    revokedAt bigint not null,
+    constraint pk_revoked_session_tokens primary key (tokenId)
+);
+
+create index ix_revoked_session_tokens_revoked on revoked_session_tokens (revokedAt);
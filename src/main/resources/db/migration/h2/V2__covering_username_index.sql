@@ -0,0 +1,2 @@
+-- H2 has no included columns; the unique constraint from V1 already serves username lookups.
+-- Kept so every vendor shares the same version history.
@@ -0,0 +1,3 @@
+-- Unique per tenant among the rows that have a key; rows awaiting the backfill are null
+create unique index uk_users_username_key on users (tenantId, usernameKey);
+create unique index uk_users_email_key on users (tenantId, emailKey);
@@ -0,0 +1,4 @@
+-- The worker claims rows before sending them, so nodes polling the same outbox send each message
+-- once. A claim older than auth.mail.outbox.claim-timeout-ms is taken to belong to a dead worker.
+alter table email_outbox add column claimedBy varchar(64);
+alter table email_outbox add column claimedAt bigint;
@@ -0,0 +1,33 @@
+-- Same tables, constraints and indexes the entity mappings describe. A database previously
+-- created by hbm2ddl does not match it; LegacySchemaUpgrade rebuilds that from here
+
+create sequence users_seq start with 1 increment by 50;
+
+create table users (
+    id bigint not null,
+    username varchar(100) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    enabled boolean not null,
+    description varchar(500),
+    createdAt bigint not null,
+    failedLoginAttempts integer,
+    lockedUntil bigint,
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create index ix_users_created_at_id on users (createdAt, id);
+
+create table http_sessions (
+    session_id varchar(64) not null,
+    creation_time bigint not null,
+    last_access_time bigint not null,
+    max_inactive_seconds integer not null,
+    expiry_time bigint not null,
+    attributes bytea,
+    constraint pk_http_sessions primary key (session_id)
+);
+
+create index ix_http_sessions_expiry_time on http_sessions (expiry_time);
@@ -0,0 +1,5 @@
+-- Profile page views read id, username and description by username. Carrying description in the
+-- unique index lets them be answered from the index (an index-only scan once the page is
+-- all-visible). The index keeps the constraint's name, which sign-up uses to report duplicates.
+alter table users drop constraint uk_users_username;
+create unique index uk_users_username on users (username) include (description);
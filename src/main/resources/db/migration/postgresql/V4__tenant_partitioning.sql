@@ -0,0 +1,14 @@
+-- Users belong to a tenant; existing rows move to the default tenant. Usernames and emails are
+-- unique per tenant, and the indexes keep their names, which sign-up uses to report duplicates.
+alter table users add column tenantId varchar(64) not null default 'default';
+
+drop index uk_users_username;
+create unique index uk_users_username on users (tenantId, username) include (description);
+alter table users drop constraint uk_users_email;
+alter table users add constraint uk_users_email unique (tenantId, email);
+
+-- Admin listings page through one tenant at a time
+drop index ix_users_created_at_id;
+create index ix_users_created_at_id on users (tenantId, createdAt, id);
+
+alter table auth_events add column tenantId varchar(64) not null default 'default';
@@ -0,0 +1,5 @@
+-- Lookup keys: username and email as compared for sign-in and uniqueness, normalized and
+-- lowercased by the application. Nullable, since existing rows are filled in by the backfill
+-- that runs after startup; adding them without a default does not rewrite the table.
+alter table users add column usernameKey varchar(100);
+alter table users add column emailKey varchar(255);
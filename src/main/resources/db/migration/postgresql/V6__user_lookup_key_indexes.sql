@@ -0,0 +1,6 @@
+-- Unique per tenant among the rows that have a key; rows awaiting the backfill are null.
+-- Built concurrently so sign-ups keep writing while they build, which means this script runs
+-- outside a transaction. The username key index carries what profile page views read, so they
+-- are answered by an index-only scan.
+create unique index concurrently uk_users_username_key on users (tenantId, usernameKey) include (id, username, description);
+create unique index concurrently uk_users_email_key on users (tenantId, emailKey);
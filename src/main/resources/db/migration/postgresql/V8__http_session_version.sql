@@ -0,0 +1,3 @@
+-- Attribute changes are written as compare-and-set on this version, so two nodes changing the same
+-- session at once both keep their changes
+alter table http_sessions add column version bigint not null default 0;
@@ -0,0 +1,7 @@
+-- Profile page views read id, username and description by username. Carrying description in the
+-- unique index answers them without a key lookup into the clustered primary key (id is already
+-- part of every nonclustered index). The default collation is case-insensitive, so the index also
+-- serves case-insensitive username lookups. It keeps the constraint's name, which sign-up uses to
+-- report duplicates.
+alter table users drop constraint uk_users_username;
+create unique index uk_users_username on users (username) include (description);
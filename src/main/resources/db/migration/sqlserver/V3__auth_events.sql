@@ -0,0 +1,13 @@
+-- Append-only audit trail written in batches by AuditLog. No foreign key to users: failed
+-- sign-ins for unknown usernames are recorded too, and events outlive deleted accounts.
+create table auth_events (
+    id bigint identity(1,1) not null,
+    occurredAt bigint not null,
+    eventType varchar(32) not null,
+    userId bigint,
+    username varchar(100),
+    constraint pk_auth_events primary key (id)
+);
+
+create index ix_auth_events_user_occurred on auth_events (userId, occurredAt);
+create index ix_auth_events_occurred on auth_events (occurredAt);
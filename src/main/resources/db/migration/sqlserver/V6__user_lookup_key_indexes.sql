@@ -0,0 +1,7 @@
+-- Unique per tenant among the rows that have a key; rows awaiting the backfill are filtered out,
+-- since SQL Server would otherwise allow only one null. The username key index carries what
+-- profile page views read (id comes with the clustered key), so they need no key lookup.
+create unique index uk_users_username_key on users (tenantId, usernameKey) include (username, description)
+    where usernameKey is not null;
+create unique index uk_users_email_key on users (tenantId, emailKey)
+    where emailKey is not null;
@@ -0,0 +1,23 @@
+-- Sign-up verification tokens. Only a hash of each token is stored; the token itself travels in the
+-- outbox message until it is sent. New accounts stay disabled until their token is redeemed.
+create table email_verifications (
+    tokenHash varchar(64) not null,
+    tenantId varchar(64) not null,
+    userId bigint not null,
+    expiresAt bigint not null,
+    constraint pk_email_verifications primary key (tokenHash)
+);
+
+create index ix_email_verifications_user on email_verifications (userId);
+
+-- Mail written in the same transaction as the change that causes it, and deleted by the outbox
+-- worker once its sink has accepted it
+create table email_outbox (
+    id bigint identity(1,1) not null,
+    tenantId varchar(64) not null,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    body varchar(2000) not null,
+    createdAt bigint not null,
+    constraint pk_email_outbox primary key (id)
+);
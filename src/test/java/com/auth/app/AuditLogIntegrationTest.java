@@ -0,0 +1,211 @@
+package com.auth.app;
+
+import com.auth.app.audit.AuditEvent;
+import com.auth.app.audit.AuditLog;
+import com.auth.app.audit.AuditSink;
+import com.auth.app.audit.AuthEventType;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class AuditLogIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        // Events from earlier tests sharing this context must land before the table is cleared
+        awaitDrained(auditLog);
+        userRepository.deleteAll();
+        userCache.clear();
+        jdbcTemplate.update("delete from auth_events");
+    }
+
+    @Test
+    public void testAuthEventsAreWrittenToTheTable() throws Exception {
+        User user = authService.signUp("audituser", "audit@example.com", "password123");
+        assertThat(authService.validatePasswordAsync(user, "password123").get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(authService.validatePasswordAsync(user, "wrongpassword").get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(authService.updateDescription(user.getId(), "Audited")).isTrue();
+
+        MvcResult result = mockMvc.perform(post("/login")
+                        .param("username", "nosuchuser")
+                        .param("password", "password123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        List<Map<String, Object>> events = awaitEvents(5);
+        assertThat(events).extracting(event -> event.get("eventType")).containsExactly(
+                "SIGNUP", "LOGIN_SUCCESS", "LOGIN_FAILURE", "SETTINGS_CHANGE", "LOGIN_FAILURE");
+        assertThat(events.get(0).get("userId")).isEqualTo(user.getId());
+        assertThat(events.get(0).get("username")).isEqualTo("audituser");
+        assertThat(events.get(3).get("username")).isNull();
+        assertThat(events.get(4).get("userId")).isNull();
+        assertThat(events.get(4).get("username")).isEqualTo("nosuchuser");
+    }
+
+    @Test
+    public void testQueuedEventsAreFlushedOnShutdown() throws Exception {
+        List<AuditEvent> sunk = new CopyOnWriteArrayList<>();
+        // The writer would otherwise sleep for a minute between polls
+        AuditLog auditLog = new AuditLog(sunk::addAll, true, 1024, 100, 60_000, "drop", 50, 10_000);
+        Thread.sleep(100);
+
+        for (int i = 0; i < 750; i++) {
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, (long) i, "user" + i);
+        }
+        auditLog.destroy();
+
+        assertThat(sunk).hasSize(750);
+        assertThat(sunk.get(749).userId()).isEqualTo(749L);
+        assertThat(auditLog.getWrittenCount()).isEqualTo(750);
+        assertThat(auditLog.getQueuedCount()).isZero();
+
+        auditLog.record(AuthEventType.LOGIN_SUCCESS, 1L, "late");
+        assertThat(auditLog.getQueuedCount()).isZero();
+    }
+
+    @Test
+    public void testDropPolicyDiscardsEventsWhenFull() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AuditLog auditLog = new AuditLog(sink, true, 4, 1, 1, "drop", 50, 10_000);
+
+        // The writer takes the first event and stalls in the sink, leaving the ring to fill up
+        auditLog.record(AuthEventType.LOGIN_FAILURE, null, "first");
+        assertThat(sink.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, null, "queued" + i);
+        }
+        assertThat(auditLog.getQueuedCount()).isEqualTo(4);
+        assertThat(auditLog.getDroppedCount()).isEqualTo(3);
+
+        sink.release.countDown();
+        auditLog.destroy();
+        assertThat(auditLog.getWrittenCount()).isEqualTo(5);
+        assertThat(sink.events).extracting(AuditEvent::username)
+                .containsExactly("first", "queued0", "queued1", "queued2", "queued3");
+    }
+
+    @Test
+    public void testBlockPolicyWaitsForSpace() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AuditLog auditLog = new AuditLog(sink, true, 4, 1, 1, "block", 5_000, 10_000);
+
+        auditLog.record(AuthEventType.LOGIN_FAILURE, null, "first");
+        assertThat(sink.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 4; i++) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, null, "queued" + i);
+        }
+
+        Thread producer = new Thread(() -> auditLog.record(AuthEventType.LOGIN_FAILURE, null, "waited"));
+        producer.start();
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+
+        sink.release.countDown();
+        producer.join(5_000);
+        assertThat(producer.isAlive()).isFalse();
+        auditLog.destroy();
+        assertThat(auditLog.getDroppedCount()).isZero();
+        assertThat(sink.events).extracting(AuditEvent::username).endsWith("waited");
+    }
+
+    @Test
+    public void testRecordingDoesNotAllocate() throws Exception {
+        AuditLog auditLog = new AuditLog(events -> { }, true, 16_384, 500, 1, "drop", 50, 10_000);
+        Long userId = 42L;
+        for (int i = 0; i < 10_000; i++) {
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, userId, "alice");
+        }
+        awaitDrained(auditLog);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, userId, "alice");
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        auditLog.destroy();
+
+        assertThat(auditLog.getDroppedCount()).isZero();
+        // Well under one byte per event, leaving room for the measurement itself
+        assertThat(allocated).isLessThan(1_000);
+    }
+
+    private List<Map<String, Object>> awaitEvents(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<Map<String, Object>> events;
+        do {
+            Thread.sleep(50);
+            events = jdbcTemplate.queryForList(
+                    "select eventType, userId, username from auth_events order by id");
+        } while (events.size() < expected && System.currentTimeMillis() < deadline);
+        return events;
+    }
+
+    private static void awaitDrained(AuditLog auditLog) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (auditLog.getQueuedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class BlockingSink implements AuditSink {
+
+        private final List<AuditEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(List<AuditEvent> batch) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.auth.app;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class AuthApiIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+        authService.signUp("apiuser", "api@example.com", "password123", "Mobile client");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testTenantHeaderOnlyAcceptsConfiguredTenants() throws Exception {
+        // No tenants are configured here, so only the default one exists
+        mockMvc.perform(get("/api/v1/profile").header("X-Tenant-Id", "made-up-tenant"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/login").header("X-Tenant-Id", "default"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testSignupReturnsCreatedProfile() throws Exception {
+        mockMvc.perform(post("/api/v1/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"newapiuser\",\"email\":\"new.api@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.username").value("newapiuser"))
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.description").doesNotExist());
+
+        assertThat(userRepository.findByUsername("newapiuser")).isPresent();
+    }
+
+    @Test
+    public void testSignupValidationErrorIsJson() throws Exception {
+        mockMvc.perform(post("/api/v1/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"apiuser\",\"email\":\"other@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Username already exists"));
+    }
+
+    @Test
+    public void testLoginTokenReadsAndUpdatesProfileWithoutSession() throws Exception {
+        MvcResult login = login("apiuser", "password123")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").isNumber())
+                .andExpect(header().doesNotExist("Set-Cookie"))
+                .andReturn();
+        assertThat(login.getRequest().getSession(false)).isNull();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+
+        mockMvc.perform(get("/api/v1/profile").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("apiuser"))
+                .andExpect(jsonPath("$.description").value("Mobile client"));
+
+        mockMvc.perform(patch("/api/v1/profile")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Updated over the API\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Updated over the API"));
+
+        assertThat(authService.findProfile("apiuser").orElseThrow().description()).isEqualTo("Updated over the API");
+    }
+
+    @Test
+    public void testBadCredentialsAndMissingTokenAreUnauthorized() throws Exception {
+        login("apiuser", "wrongpassword")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Invalid username or password"));
+
+        mockMvc.perform(get("/api/v1/profile"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer"));
+        mockMvc.perform(get("/api/v1/profile").header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testLogoutRevokesToken() throws Exception {
+        String token = token("apiuser", "password123");
+
+        mockMvc.perform(post("/api/v1/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/profile").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testOnlyJsonIsNegotiated() throws Exception {
+        mockMvc.perform(post("/api/v1/login")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("username", "apiuser")
+                        .param("password", "password123"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        String token = token("apiuser", "password123");
+        mockMvc.perform(get("/api/v1/profile")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.TEXT_HTML))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    private String token(String username, String password) throws Exception {
+        JsonNode body = objectMapper.readTree(login(username, password).andReturn().getResponse().getContentAsString());
+        return body.get("token").asText();
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/v1/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginBody(username, password))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private record LoginBody(String username, String password) {
+    }
+}
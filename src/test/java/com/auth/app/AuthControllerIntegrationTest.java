@@ -3,20 +3,37 @@ package com.auth.app;
 import com.auth.app.entity.User;
 import com.auth.app.repository.UserRepository;
 import com.auth.app.service.AuthService;
+import com.auth.app.service.PasswordHashingExecutor;
+import com.auth.app.service.UserCache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
-import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
@@ -32,10 +49,17 @@ public class AuthControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @SpyBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @BeforeEach
     public void setUp() {
         // Clear database before each test
         userRepository.deleteAll();
+        userCache.clear();
         // Create a test user for login tests
         authService.signUp("testuser", "test@example.com", "password123");
     }
@@ -44,6 +68,7 @@ public class AuthControllerIntegrationTest {
     public void tearDown() {
         // Clear all users after each test
         userRepository.deleteAll();
+        userCache.clear();
     }
 
     @Test
@@ -58,6 +83,44 @@ public class AuthControllerIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testLoginPageIsServedPrerenderedWithEtag() throws Exception {
+        MvcResult plain = mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(matchesPattern("(?s).*href=\"/css/login-[0-9a-f]{32}\\.css\".*")))
+                .andReturn();
+        String etag = plain.getResponse().getHeader("ETag");
+        assertThat(etag).isNotNull();
+
+        MvcResult gzipped = mockMvc.perform(get("/login").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn();
+        assertThat(gzipped.getResponse().getHeader("ETag")).isNotEqualTo(etag);
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getResponse().getContentAsByteArray());
+        }
+
+        mockMvc.perform(get("/login").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testStylesheetsAreCachedByContentVersion() throws Exception {
+        String page = mockMvc.perform(get("/signup")).andReturn().getResponse().getContentAsString();
+        Matcher link = Pattern.compile("href=\"(/css/signup-[0-9a-f]{32}\\.css)\"").matcher(page);
+        assertThat(link.find()).isTrue();
+
+        mockMvc.perform(get(link.group(1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(content().string(containsString(".login-link")));
+    }
+
     @Test
     public void testSuccessfulSignup() throws Exception {
         mockMvc.perform(post("/signup")
@@ -90,27 +153,21 @@ public class AuthControllerIntegrationTest {
 
     @Test
     public void testSuccessfulLogin() throws Exception {
-        mockMvc.perform(post("/login")
-                .param("username", "testuser")
-                .param("password", "password123"))
+        performLogin("testuser", "password123")
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/dashboard"));
     }
 
     @Test
     public void testFailedLoginInvalidPassword() throws Exception {
-        mockMvc.perform(post("/login")
-                .param("username", "testuser")
-                .param("password", "wrongpassword"))
+        performLogin("testuser", "wrongpassword")
                 .andExpect(status().isOk())
                 .andExpect(view().name("auth/login"));
     }
 
     @Test
     public void testFailedLoginInvalidUsername() throws Exception {
-        mockMvc.perform(post("/login")
-                .param("username", "nonexistentuser")
-                .param("password", "password123"))
+        performLogin("nonexistentuser", "password123")
                 .andExpect(status().isOk())
                 .andExpect(view().name("auth/login"));
     }
@@ -124,9 +181,7 @@ public class AuthControllerIntegrationTest {
     @Test
     public void testLogout() throws Exception {
         // First login
-        mockMvc.perform(post("/login")
-                .param("username", "testuser")
-                .param("password", "password123"))
+        performLogin("testuser", "password123")
                 .andExpect(status().is3xxRedirection());
 
         // Then logout  
@@ -157,9 +212,7 @@ public class AuthControllerIntegrationTest {
         authService.signUp("settingsuser", "settings@example.com", "password123", "User description");
 
         // Login
-        mockMvc.perform(post("/login")
-                .param("username", "settingsuser")
-                .param("password", "password123"))
+        performLogin("settingsuser", "password123")
                 .andExpect(status().is3xxRedirection());
 
         // Access settings page - should redirect to login first since we're not testing the full flow
@@ -167,4 +220,40 @@ public class AuthControllerIntegrationTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/login"));
     }
+
+    @Test
+    public void testSaveSettingsUpdatesDescription() throws Exception {
+        MockHttpSession session = (MockHttpSession) performLogin("testuser", "password123")
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getRequest().getSession();
+
+        mockMvc.perform(post("/settings").session(session).param("description", "Updated description"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard"));
+
+        mockMvc.perform(get("/dashboard").session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Updated description")));
+        assertThat(userRepository.findByUsername("testuser").orElseThrow().getDescription())
+                .isEqualTo("Updated description");
+    }
+
+    @Test
+    public void testLoginRejectedWhenHashingPoolSaturated() throws Exception {
+        doThrow(new RejectedExecutionException("saturated")).when(passwordHashingExecutor).execute(any());
+
+        performLogin("testuser", "password123")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(view().name("auth/login"));
+    }
+
+    private ResultActions performLogin(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                .param("username", username)
+                .param("password", password))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
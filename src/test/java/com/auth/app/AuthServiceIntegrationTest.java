@@ -1,12 +1,20 @@
 package com.auth.app;
 
 import com.auth.app.entity.User;
+import com.auth.app.repository.UserProfile;
 import com.auth.app.repository.UserRepository;
 import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.service.UserLookupKeyBackfill;
+import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -21,10 +29,23 @@ public class AuthServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserLookupKeyBackfill lookupKeyBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     public void tearDown() {
         // Clear all users after each test
         userRepository.deleteAll();
+        userCache.clear();
     }
 
     @Test
@@ -55,6 +76,23 @@ public class AuthServiceIntegrationTest {
                 .hasMessage("Email already exists");
     }
 
+    @Test
+    public void testSignUpMapsUniqueViolationWhenFilterMissesDuplicate() {
+        // Saved behind the service's back, so the signup filter has never seen these values
+        userRepository.save(User.builder()
+                .username("racinguser")
+                .email("racing@example.com")
+                .password("hash")
+                .build());
+
+        assertThatThrownBy(() -> authService.signUp("racinguser", "other@example.com", "password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Username already exists");
+        assertThatThrownBy(() -> authService.signUp("otheruser", "racing@example.com", "password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+    }
+
     @Test
     public void testFindByUsername() {
         authService.signUp("finduser", "finduser@example.com", "password123");
@@ -148,4 +186,145 @@ public class AuthServiceIntegrationTest {
         assertThat(user).isNotNull();
         assertThat(user.getDescription()).isEqualTo("");
     }
+
+    @Test
+    public void testLegacyHashUpgradedAfterSuccessfulLogin() throws Exception {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+        User user = userRepository.save(User.builder()
+                .username("legacyuser")
+                .email("legacyuser@example.com")
+                .password(legacyHash)
+                .build());
+
+        assertThat(authService.validatePasswordAsync(user, "password123").get(5, TimeUnit.SECONDS)).isTrue();
+
+        String upgradedHash = legacyHash;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (upgradedHash.equals(legacyHash) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            upgradedHash = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        }
+
+        assertThat(upgradedHash).startsWith("{bcrypt}");
+        assertThat(authService.validatePassword("password123", upgradedHash)).isTrue();
+    }
+
+    @Test
+    public void testFindByUsernameServedFromCache() {
+        authService.signUp("cacheduser", "cacheduser@example.com", "password123");
+        long hitsBefore = userCache.getHitCount();
+
+        var first = authService.findByUsername("cacheduser");
+        var second = authService.findById(first.orElseThrow().getId());
+
+        assertThat(second).isPresent();
+        assertThat(second.get().getUsername()).isEqualTo("cacheduser");
+        assertThat(userCache.getHitCount()).isEqualTo(hitsBefore + 2);
+    }
+
+    @Test
+    public void testSaveUserWritesThroughToCache() {
+        authService.signUp("writethrough", "writethrough@example.com", "password123", "before");
+
+        User user = authService.findByUsername("writethrough").orElseThrow();
+        user.setDescription("after");
+        authService.saveUser(user);
+
+        assertThat(authService.findByUsername("writethrough").orElseThrow().getDescription()).isEqualTo("after");
+        assertThat(userRepository.findByUsername("writethrough").orElseThrow().getDescription()).isEqualTo("after");
+    }
+
+    @Test
+    public void testFindProfileReadsDisplayFields() {
+        User user = authService.signUp("profileuser", "profile@example.com", "password123", "About me");
+        userCache.clear();
+
+        UserProfile profile = authService.findProfile("profileuser").orElseThrow();
+
+        assertThat(profile).isEqualTo(new UserProfile(user.getId(), "profileuser", "About me"));
+        assertThat(authService.findProfile("nosuchprofile")).isEmpty();
+    }
+
+    @Test
+    public void testUpdateDescriptionLeavesOtherColumnsAlone() {
+        User user = authService.signUp("describeduser", "described@example.com", "password123", "before");
+        String passwordHash = userRepository.findById(user.getId()).orElseThrow().getPassword();
+
+        assertThat(authService.updateDescription(user.getId(), "after")).isTrue();
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(stored.getDescription()).isEqualTo("after");
+        assertThat(stored.getPassword()).isEqualTo(passwordHash);
+        assertThat(authService.findProfile("describeduser").orElseThrow().description()).isEqualTo("after");
+        assertThat(authService.updateDescription(-1L, "nobody")).isFalse();
+    }
+
+    @Test
+    public void testUpdateDescriptionTooLong() {
+        User user = authService.signUp("verboseuser", "verbose@example.com", "password123");
+
+        assertThatThrownBy(() -> authService.updateDescription(user.getId(), "x".repeat(501)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Description must not exceed 500 characters");
+    }
+
+    @Test
+    public void testSchemaIsFullyMigrated() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current()).isNotNull();
+    }
+
+    @Test
+    public void testUsernamesAndEmailsIgnoreCaseAndUnicodeForm() {
+        User user = authService.signUp("Alice", "Alice@Example.com", "password123");
+        assertThat(user.getUsernameKey()).isEqualTo("alice");
+        assertThat(user.getEmailKey()).isEqualTo("alice@example.com");
+
+        assertThatThrownBy(() -> authService.signUp("alice", "other@example.com", "password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Username already exists");
+        // Full-width letters normalize to plain ones
+        assertThatThrownBy(() -> authService.signUp("\uFF41\uFF4C\uFF49\uFF43\uFF45", "other@example.com", "password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Username already exists");
+        assertThatThrownBy(() -> authService.signUp("otheruser", "ALICE@example.COM", "password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+
+        userCache.clear();
+        assertThat(authService.findByUsername("ALICE").orElseThrow().getId()).isEqualTo(user.getId());
+        assertThat(authService.findByUsername("ALICE").orElseThrow().getUsername()).isEqualTo("Alice");
+        assertThat(authService.findProfile(" aLiCe ").orElseThrow().username()).isEqualTo("Alice");
+    }
+
+    @Test
+    public void testBackfillGivesExistingUsersLookupKeys() {
+        userRepository.save(User.builder().username("Carol").email("carol@example.com").password("hash").build());
+        userRepository.save(User.builder().username("Dave").email("Dave@Example.com").password("hash").build());
+        // As if created before the key columns existed; the second Carol only differs in case
+        jdbcTemplate.update("update users set usernameKey = null, emailKey = null");
+        userRepository.save(User.builder().username("carol").email("carol2@example.com").password("hash").build());
+
+        assertThat(lookupKeyBackfill.run()).isEqualTo(1);
+        assertThat(lookupKeyBackfill.isComplete()).isFalse();
+        assertThat(jdbcTemplate.queryForObject("select usernameKey from users where username = 'Dave'", String.class))
+                .isEqualTo("dave");
+        assertThat(jdbcTemplate.queryForObject("select emailKey from users where username = 'Dave'", String.class))
+                .isEqualTo("dave@example.com");
+        assertThat(jdbcTemplate.queryForObject("select usernameKey from users where username = 'Carol'", String.class))
+                .isNull();
+
+        // Until the backfill completes, a miss by key retries by exact username
+        userRepository.save(User.builder().username("Erin").email("erin@example.com").password("hash").build());
+        jdbcTemplate.update("update users set usernameKey = null, emailKey = null where username = 'Erin'");
+        assertThat(authService.findByUsername("erin")).isEmpty();
+        assertThat(authService.findByUsername("Erin")).isPresent();
+
+        jdbcTemplate.update("delete from users where username = 'Carol'");
+        assertThat(lookupKeyBackfill.run()).isZero();
+        assertThat(lookupKeyBackfill.isComplete()).isTrue();
+        userCache.clear();
+        assertThat(authService.findByUsername("ERIN")).isPresent();
+        assertThat(authService.findByUsername("dave")).isPresent();
+    }
 }
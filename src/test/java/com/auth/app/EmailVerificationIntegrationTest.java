@@ -0,0 +1,202 @@
+package com.auth.app;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.EmailVerification;
+import com.auth.app.service.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.signup.verification.enabled=true",
+        "auth.mail.outbox.enabled=true",
+        "auth.mail.outbox.poll-interval-ms=100",
+        "auth.mail.sink=file",
+        "auth.mail.file=" + EmailVerificationIntegrationTest.MAIL_FILE
+})
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class EmailVerificationIntegrationTest {
+
+    static final String MAIL_FILE = "target/email-verification-test/mail.ndjson";
+    private static final Pattern TOKEN = Pattern.compile("verify\\?token=([A-Za-z0-9._-]+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailVerification emailVerification;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        userRepository.deleteAll();
+        userCache.clear();
+        // Truncated rather than deleted: the sink keeps appending to the file it opened
+        Path mail = Path.of(MAIL_FILE);
+        if (Files.exists(mail)) {
+            Files.write(mail, new byte[0]);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        jdbcTemplate.update("delete from email_verifications");
+        userCache.clear();
+    }
+
+    @Test
+    public void testAccountIsEnabledOnceTheMailedLinkIsOpened() throws Exception {
+        signUp("verifyme", "verifyme@example.com")
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Check your email")));
+        assertThat(userRepository.findByUsername("verifyme").orElseThrow().getEnabled()).isFalse();
+
+        performLogin("verifyme", "password123")
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("confirm your email address")));
+
+        String token = awaitToken("verifyme@example.com");
+        mockMvc.perform(get("/verify").param("token", token))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("You can sign in now")));
+        assertThat(userRepository.findByUsername("verifyme").orElseThrow().getEnabled()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_outbox", Integer.class)).isZero();
+
+        // Each link works once
+        mockMvc.perform(get("/verify").param("token", token))
+                .andExpect(content().string(containsString("invalid, expired or already used")));
+        performLogin("verifyme", "password123")
+                .andExpect(redirectedUrl("/dashboard"));
+    }
+
+    @Test
+    public void testExpiredAndForgedTokensAreRefused() throws Exception {
+        signUp("lateuser", "lateuser@example.com").andExpect(status().isOk());
+        String token = awaitToken("lateuser@example.com");
+        jdbcTemplate.update("update email_verifications set expiresAt = 0");
+
+        mockMvc.perform(get("/verify").param("token", token))
+                .andExpect(content().string(containsString("invalid, expired or already used")));
+        mockMvc.perform(get("/verify").param("token", "default.forged"))
+                .andExpect(content().string(containsString("invalid, expired or already used")));
+        mockMvc.perform(get("/verify").param("token", "Not A Tenant." + token))
+                .andExpect(content().string(containsString("invalid, expired or already used")));
+        assertThat(userRepository.findByUsername("lateuser").orElseThrow().getEnabled()).isFalse();
+    }
+
+    @Test
+    public void testRejectedSignUpLeavesNoTokenOrMail() throws Exception {
+        signUp("takenname", "first@example.com").andExpect(status().isOk());
+        awaitToken("first@example.com");
+
+        signUp("TakenName", "second@example.com")
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Username already exists")));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_verifications", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_outbox", Integer.class)).isZero();
+        assertThat(Files.readString(Path.of(MAIL_FILE))).doesNotContain("second@example.com");
+    }
+
+    @Test
+    public void testPurgeFreesTheNamesOfAccountsNeverVerified() throws Exception {
+        signUp("abandoned", "abandoned@example.com").andExpect(status().isOk());
+        awaitToken("abandoned@example.com");
+        signUp("pending", "pending@example.com").andExpect(status().isOk());
+        awaitToken("pending@example.com");
+        jdbcTemplate.update("update email_verifications set expiresAt = 0 where userId = ?",
+                userRepository.findByUsername("abandoned").orElseThrow().getId());
+
+        assertThat(emailVerification.purgeExpired()).isEqualTo(1);
+
+        assertThat(userRepository.findByUsername("abandoned")).isEmpty();
+        // Still within its token's lifetime
+        assertThat(userRepository.findByUsername("pending")).isPresent();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_verifications", Integer.class)).isEqualTo(1);
+        signUp("abandoned", "abandoned@example.com")
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Check your email")));
+        assertThat(userRepository.findByUsername("abandoned")).isPresent();
+    }
+
+    @Test
+    public void testExpiredLinkOpenedStillLetsThePurgeFreeTheName() throws Exception {
+        signUp("expiredlink", "expiredlink@example.com").andExpect(status().isOk());
+        String token = awaitToken("expiredlink@example.com");
+        jdbcTemplate.update("update email_verifications set expiresAt = 0");
+
+        mockMvc.perform(get("/verify").param("token", token))
+                .andExpect(content().string(containsString("invalid, expired or already used")));
+        assertThat(emailVerification.purgeExpired()).isEqualTo(1);
+
+        assertThat(userRepository.findByUsername("expiredlink")).isEmpty();
+        signUp("expiredlink", "expiredlink@example.com")
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Check your email")));
+        assertThat(userRepository.findByUsername("expiredlink").orElseThrow().getEnabled()).isFalse();
+    }
+
+    private ResultActions signUp(String username, String email) throws Exception {
+        return mockMvc.perform(post("/signup")
+                .param("username", username)
+                .param("email", email)
+                .param("password", "password123"));
+    }
+
+    private ResultActions performLogin(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                        .param("username", username)
+                        .param("password", password))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static String awaitToken(String recipient) throws IOException, InterruptedException {
+        Path file = Path.of(MAIL_FILE);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(file)) {
+                for (String line : Files.readAllLines(file)) {
+                    Matcher token = TOKEN.matcher(line);
+                    if (line.contains("\"to\":\"" + recipient + "\"") && token.find()) {
+                        return token.group(1);
+                    }
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No verification mail for " + recipient);
+    }
+}
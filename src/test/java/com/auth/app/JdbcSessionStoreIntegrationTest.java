@@ -0,0 +1,277 @@
+package com.auth.app;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.session.NearCacheJdbcSessionRepository;
+import com.auth.app.tenant.TenantContext;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.session.store=jdbc",
+        "auth.tenancy.datasources.dedicated.url=" + JdbcSessionStoreIntegrationTest.DEDICATED_URL
+})
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class JdbcSessionStoreIntegrationTest {
+
+    static final String DEDICATED_URL = "jdbc:h2:mem:session-dedicated;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private NearCacheJdbcSessionRepository sessionRepository;
+
+    @AfterEach
+    public void tearDown() {
+        new JdbcTemplate(dataSource).update("DELETE FROM http_sessions");
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testLoginSessionStoredInSharedTable() throws Exception {
+        authService.signUp("jdbcsession", "jdbcsession@example.com", "password123");
+        MvcResult login = mockMvc.perform(post("/login")
+                .param("username", "jdbcsession")
+                .param("password", "password123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(login))
+                .andExpect(redirectedUrl("/dashboard"))
+                .andReturn();
+        Cookie sessionCookie = result.getResponse().getCookie("SESSION");
+        assertThat(sessionCookie).isNotNull();
+
+        // Written before the redirect, so the dashboard request may land on any node
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM http_sessions", Integer.class))
+                .isEqualTo(1);
+
+        mockMvc.perform(get("/dashboard").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("username", "jdbcsession"));
+    }
+
+    @Test
+    public void testSessionVisibleOnOtherNodeAsSoonAsSaved() {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository nodeB = node(Duration.ofSeconds(30));
+
+        NearCacheJdbcSessionRepository.StoredSession session = nodeA.createSession();
+        session.setAttribute("username", "alice");
+        session.setAttribute("userId", 42L);
+        nodeA.save(session);
+
+        NearCacheJdbcSessionRepository.StoredSession shared = nodeB.findById(session.getId());
+        assertThat(shared).isNotNull();
+        assertThat(shared.<String>getAttribute("username")).isEqualTo("alice");
+        assertThat(shared.<Long>getAttribute("userId")).isEqualTo(42L);
+    }
+
+    @Test
+    public void testAttributeChangesMergeAcrossConcurrentViews() {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ZERO);
+        NearCacheJdbcSessionRepository.StoredSession session = nodeA.createSession();
+        session.setAttribute("username", "alice");
+        nodeA.save(session);
+        nodeA.flush();
+
+        NearCacheJdbcSessionRepository.StoredSession first = nodeA.findById(session.getId());
+        NearCacheJdbcSessionRepository.StoredSession second = nodeA.findById(session.getId());
+        first.setAttribute("theme", "dark");
+        second.removeAttribute("username");
+        nodeA.save(first);
+        nodeA.save(second);
+        nodeA.flush();
+
+        NearCacheJdbcSessionRepository.StoredSession reloaded = node(Duration.ZERO).findById(session.getId());
+        assertThat(reloaded.getAttributeNames()).containsExactly("theme");
+    }
+
+    @Test
+    public void testAttributeChangesFromTwoNodesBothSurvive() {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository nodeB = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository.StoredSession session = nodeA.createSession();
+        session.setAttribute("username", "alice");
+        nodeA.save(session);
+
+        // Both nodes now hold the same version in their near caches
+        NearCacheJdbcSessionRepository.StoredSession onA = nodeA.findById(session.getId());
+        NearCacheJdbcSessionRepository.StoredSession onB = nodeB.findById(session.getId());
+        onA.setAttribute("theme", "dark");
+        onB.setAttribute("locale", "de");
+        nodeA.save(onA);
+        nodeB.save(onB);
+
+        NearCacheJdbcSessionRepository.StoredSession reloaded = node(Duration.ZERO).findById(session.getId());
+        assertThat(reloaded.getAttributeNames()).containsExactlyInAnyOrder("username", "theme", "locale");
+    }
+
+    @Test
+    public void testDedicatedTenantSessionKeepsLastAccessThroughScheduledFlush() {
+        long touchedAt = Instant.now().plusSeconds(120).toEpochMilli();
+        String id = TenantContext.callAs("dedicated", () -> {
+            NearCacheJdbcSessionRepository.StoredSession session = sessionRepository.createSession();
+            session.setAttribute("username", "alice");
+            sessionRepository.save(session);
+            NearCacheJdbcSessionRepository.StoredSession touched = sessionRepository.findById(session.getId());
+            touched.setLastAccessedTime(Instant.ofEpochMilli(touchedAt));
+            sessionRepository.save(touched);
+            return session.getId();
+        });
+
+        // Like the scheduler: no tenant on this thread
+        sessionRepository.flush();
+
+        assertThat(lastAccessTime(id)).isEqualTo(touchedAt);
+        assertThat(new JdbcTemplate(new DriverManagerDataSource(DEDICATED_URL, "sa", ""))
+                .queryForObject("SELECT COUNT(*) FROM http_sessions", Integer.class)).isZero();
+        assertThat(TenantContext.callAs("dedicated", () -> sessionRepository.findById(id))).isNotNull();
+    }
+
+    @Test
+    public void testSessionDeletedOnAnotherNodeIsNotWrittenBack() {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository nodeB = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository.StoredSession session = nodeA.createSession();
+        session.setAttribute("username", "alice");
+        nodeA.save(session);
+
+        NearCacheJdbcSessionRepository.StoredSession touched = nodeA.findById(session.getId());
+        NearCacheJdbcSessionRepository.StoredSession changed = nodeA.findById(session.getId());
+        nodeB.deleteById(session.getId());
+        touched.setLastAccessedTime(Instant.now().plusSeconds(120));
+        nodeA.save(touched);
+        nodeA.flush();
+        changed.setAttribute("theme", "dark");
+        nodeA.save(changed);
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM http_sessions", Integer.class))
+                .isZero();
+        assertThat(nodeA.findById(session.getId())).isNull();
+    }
+
+    @Test
+    public void testLastAccessWithinTouchIntervalIsNotWritten() {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository.StoredSession session = nodeA.createSession();
+        nodeA.save(session);
+        nodeA.flush();
+        long persistedAccess = lastAccessTime(session.getId());
+
+        NearCacheJdbcSessionRepository.StoredSession next = nodeA.findById(session.getId());
+        next.setLastAccessedTime(Instant.ofEpochMilli(persistedAccess).plusSeconds(5));
+        nodeA.save(next);
+        nodeA.flush();
+
+        assertThat(lastAccessTime(session.getId())).isEqualTo(persistedAccess);
+    }
+
+    @Test
+    public void testPurgeRemovesExpiredSessions() throws InterruptedException {
+        NearCacheJdbcSessionRepository nodeA = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository.StoredSession expired = nodeA.createSession();
+        expired.setMaxInactiveInterval(Duration.ofSeconds(1));
+        nodeA.save(expired);
+        NearCacheJdbcSessionRepository.StoredSession live = nodeA.createSession();
+        nodeA.save(live);
+        nodeA.flush();
+        Thread.sleep(1100);
+
+        assertThat(nodeA.purgeExpiredSessions()).isEqualTo(1);
+        assertThat(nodeA.findById(live.getId())).isNotNull();
+        assertThat(nodeA.findById(expired.getId())).isNull();
+    }
+
+    // Reports the timings; run with mvn -Pload-test test -Dtest=JdbcSessionStoreIntegrationTest
+    @Test
+    @Tag("load")
+    public void testPerRequestOverheadAgainstInMemoryStore() {
+        MapSessionRepository inMemory = new MapSessionRepository(new ConcurrentHashMap<>());
+        MapSession memorySession = inMemory.createSession();
+        memorySession.setAttribute("username", "alice");
+        inMemory.save(memorySession);
+
+        NearCacheJdbcSessionRepository jdbc = node(Duration.ofSeconds(30));
+        NearCacheJdbcSessionRepository.StoredSession jdbcSession = jdbc.createSession();
+        jdbcSession.setAttribute("username", "alice");
+        jdbc.save(jdbcSession);
+        jdbc.flush();
+
+        long memoryNanos = simulateRequests(inMemory, memorySession.getId());
+        long jdbcNanos = simulateRequests(jdbc, jdbcSession.getId());
+        System.out.printf("Per-request session overhead: in-memory %d ns, jdbc near cache %d ns%n",
+                memoryNanos, jdbcNanos);
+
+        assertThat(jdbc.findById(jdbcSession.getId()).<String>getAttribute("username")).isEqualTo("alice");
+    }
+
+    // Mirrors SessionRepositoryFilter: load, touch, read an attribute, save
+    private <S extends Session> long simulateRequests(SessionRepository<S> repository, String id) {
+        int requests = 20_000;
+        for (int i = 0; i < requests; i++) {
+            touch(repository, id);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            touch(repository, id);
+        }
+        return (System.nanoTime() - start) / requests;
+    }
+
+    private <S extends Session> void touch(SessionRepository<S> repository, String id) {
+        S session = repository.findById(id);
+        session.setLastAccessedTime(Instant.now());
+        session.getAttribute("username");
+        repository.save(session);
+    }
+
+    private long lastAccessTime(String id) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT last_access_time FROM http_sessions WHERE session_id = ?", Long.class, id);
+    }
+
+    private NearCacheJdbcSessionRepository node(Duration nearCacheTtl) {
+        return new NearCacheJdbcSessionRepository(dataSource, Duration.ofMinutes(30), nearCacheTtl,
+                10_000, Duration.ofSeconds(60));
+    }
+}
@@ -0,0 +1,118 @@
+package com.auth.app;
+
+import com.auth.app.config.LegacySchemaUpgrade;
+import com.auth.app.entity.HttpSessionRecord;
+import com.auth.app.entity.User;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Upgrades a database laid out the way hbm2ddl created it for the original User entity, with an
+ * IDENTITY id and Hibernate-named unique constraints, and checks the result against the mappings.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@org.springframework.test.context.ActiveProfiles("test")
+public class LegacySchemaUpgradeIntegrationTest {
+
+    private static final String LEGACY_URL = "jdbc:h2:mem:legacydb;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private LegacySchemaUpgrade legacySchemaUpgrade;
+
+    private DataSource dataSource;
+    private JdbcTemplate legacy;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource(LEGACY_URL, "sa", "");
+        legacy = new JdbcTemplate(dataSource);
+        legacy.execute("create table users (id bigint generated by default as identity, createdAt bigint not null, "
+                + "description varchar(500), email varchar(255) not null, enabled boolean not null, "
+                + "password varchar(255) not null, username varchar(100) not null, primary key (id))");
+        legacy.execute("alter table if exists users add constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username)");
+        legacy.execute("alter table if exists users add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email)");
+        for (String username : new String[]{"legacy1", "legacy2", "legacy3"}) {
+            legacy.update("insert into users (createdAt, email, enabled, password, username) values (?, ?, true, ?, ?)",
+                    System.currentTimeMillis(), username + "@example.com", "{bcrypt}hash", username);
+        }
+        // Deleted accounts leave gaps in the ids
+        legacy.update("delete from users where username = 'legacy2'");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        legacy.execute("drop all objects");
+    }
+
+    @Test
+    public void testUsersKeepTheirIdsAndNewUsersFollowThem() {
+        legacySchemaUpgrade.migrate(flyway());
+
+        assertThat(legacy.queryForList("select id from users order by id", Long.class)).containsExactly(1L, 3L);
+        assertThat(legacy.queryForList("select tenantId from users", String.class)).containsOnly("default");
+        // Building the factory validates the schema like startup does
+        try (SessionFactory sessionFactory = sessionFactory();
+             Session session = sessionFactory.withOptions().tenantIdentifier((Object) "default").openSession()) {
+            session.beginTransaction();
+            User user = User.builder().username("newuser").email("newuser@example.com").password("{bcrypt}hash").build();
+            session.persist(user);
+            session.getTransaction().commit();
+            assertThat(user.getId()).isGreaterThan(3L);
+        }
+    }
+
+    @Test
+    public void testHibernateConstraintNamesAreReplacedByTheNamedOnes() {
+        legacySchemaUpgrade.migrate(flyway());
+
+        assertThat(legacy.queryForList("select lower(constraint_name) from information_schema.table_constraints "
+                + "where table_name = 'USERS' and constraint_type = 'UNIQUE'", String.class))
+                .contains(User.USERNAME_CONSTRAINT, User.EMAIL_CONSTRAINT)
+                .noneMatch(name -> name.startsWith("uk_") && !name.startsWith("uk_users_"));
+        assertThatThrownBy(() -> legacy.update("insert into users (id, tenantId, username, email, password, enabled, createdAt) "
+                + "values (100, 'default', 'legacy1', 'other@example.com', 'x', true, 0)"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(User.USERNAME_CONSTRAINT.toUpperCase());
+        assertThat(flyway().info().pending()).isEmpty();
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
+    private SessionFactory sessionFactory() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(HttpSessionRecord.class);
+        // The native bootstrap only maps the JPA datasource keys for EntityManagerFactory builds
+        DatasourceConnectionProviderImpl connectionProvider = new DatasourceConnectionProviderImpl();
+        connectionProvider.setDataSource(dataSource);
+        configuration.getProperties().put(JdbcSettings.CONNECTION_PROVIDER, connectionProvider);
+        configuration.setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "validate");
+        return configuration.buildSessionFactory();
+    }
+}
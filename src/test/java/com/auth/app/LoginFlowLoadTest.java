@@ -0,0 +1,392 @@
+package com.auth.app;
+
+import com.auth.app.service.AuthService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends a mix of sign-in, sign-up, dashboard and settings requests to the app at a fixed arrival
+ * rate and checks each endpoint's latency against the SLOs in {@code load-test.properties}. A
+ * request starts when it is due whether or not earlier ones have returned, and its latency is
+ * counted from that moment. A stall therefore shows up in every request it held back instead of in
+ * a single slow sample, which a closed loop of users would hide (coordinated omission). The report
+ * and one HdrHistogram percentile distribution per endpoint are written to {@code target/load-test}.
+ * Run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+public class LoginFlowLoadTest {
+
+    private static final Path REPORT_DIRECTORY = Path.of("target", "load-test");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PASSWORD = "password123";
+
+    @Test
+    public void testLoginFlowMeetsSlos() throws Exception {
+        Properties config = loadConfig();
+        double rate = Double.parseDouble(config.getProperty("load.rate"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(config.getProperty("load.warmup-seconds")));
+        Duration measurement = Duration.ofSeconds(Long.parseLong(config.getProperty("load.duration-seconds")));
+        int users = Integer.parseInt(config.getProperty("load.users"));
+        if (rate <= 0 || measurement.isZero() || users < 1) {
+            throw new IllegalArgumentException("load.rate, load.duration-seconds and load.users must be positive");
+        }
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            mix.put(endpoint, Integer.parseInt(config.getProperty("load.mix." + endpoint.key, "0")));
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringAuthAppApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--logging.level.root=WARN", "--logging.level.com.auth.app=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--auth.login-throttle.enabled=false")) {
+            String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(REQUEST_TIMEOUT)
+                    .build();
+            Workload workload = new Workload(client, baseUrl, context.getBean(AuthService.class), users);
+
+            Map<Endpoint, EndpointResult> results = run(client, workload, new Mix(mix), rate, warmup, measurement);
+            List<String> violations = checkSlos(config, results, rate, measurement);
+            writeReport(results, rate, warmup, measurement, violations);
+
+            assertThat(violations).as("SLO violations").isEmpty();
+        }
+    }
+
+    private static Map<Endpoint, EndpointResult> run(HttpClient client, Workload workload, Mix mix, double rate,
+                                                     Duration warmup, Duration measurement) {
+        Map<Endpoint, EndpointResult> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            results.put(endpoint, new EndpointResult());
+        }
+        long intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / rate));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long deadline = measureFrom + measurement.toNanos();
+        Random random = new Random(42);
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0; ; sequence++) {
+                long due = start + sequence * intervalNanos;
+                if (due - deadline >= 0) {
+                    break;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint endpoint = mix.next(random);
+                HttpRequest request = workload.request(endpoint, sequence);
+                EndpointResult result = results.get(endpoint);
+                boolean measured = due - measureFrom >= 0;
+                requests.execute(() -> {
+                    boolean succeeded = send(client, endpoint, request);
+                    long finished = System.nanoTime();
+                    if (measured) {
+                        result.record(finished - due, succeeded);
+                    }
+                    if (finished - measureFrom >= 0 && finished - deadline < 0) {
+                        result.completedInWindow.increment();
+                    }
+                });
+            }
+        }
+        return results;
+    }
+
+    private static boolean send(HttpClient client, Endpoint endpoint, HttpRequest request) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return switch (endpoint) {
+                case LOGIN_PAGE, DASHBOARD, SETTINGS_PAGE -> response.statusCode() == 200;
+                case LOGIN, SETTINGS -> redirectsTo(response, "/dashboard");
+                case SIGNUP -> redirectsTo(response, "/login");
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean redirectsTo(HttpResponse<Void> response, String path) {
+        return response.statusCode() == 302
+                && response.headers().firstValue("Location").map(location -> location.endsWith(path)).orElse(false);
+    }
+
+    private static List<String> checkSlos(Properties config, Map<Endpoint, EndpointResult> results,
+                                          double rate, Duration measurement) {
+        List<String> violations = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        long completed = 0;
+        for (Map.Entry<Endpoint, EndpointResult> entry : results.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            EndpointResult result = entry.getValue();
+            requests += result.latency.getTotalCount();
+            errors += result.errors.sum();
+            completed += result.completedInWindow.sum();
+            for (String percentile : List.of("p50", "p99", "p999")) {
+                String limit = config.getProperty("load.slo." + endpoint.key + "." + percentile + "-ms");
+                if (limit == null || result.latency.getTotalCount() == 0) {
+                    continue;
+                }
+                double actual = result.percentileMillis(percentile);
+                if (actual > Double.parseDouble(limit)) {
+                    violations.add(String.format("%s %s %.1f ms exceeds %s ms", endpoint.label, percentile, actual, limit));
+                }
+            }
+        }
+
+        double maxErrorRate = Double.parseDouble(config.getProperty("load.slo.max-error-rate", "0"));
+        double errorRate = requests == 0 ? 0 : errors / (double) requests;
+        if (errorRate > maxErrorRate) {
+            violations.add(String.format("error rate %.4f exceeds %s", errorRate, maxErrorRate));
+        }
+        double minThroughput = rate * Double.parseDouble(config.getProperty("load.slo.min-throughput-ratio", "0"));
+        double throughput = completed / (double) measurement.toSeconds();
+        if (throughput < minThroughput) {
+            violations.add(String.format("throughput %.1f requests/s is below %.1f", throughput, minThroughput));
+        }
+        return violations;
+    }
+
+    private static void writeReport(Map<Endpoint, EndpointResult> results, double rate, Duration warmup,
+                                    Duration measurement, List<String> violations) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        Histogram all = new Histogram(3);
+        long completed = 0;
+        long errors = 0;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%.1f requests/s offered for %d s after a %d s warmup%n%n",
+                rate, measurement.toSeconds(), warmup.toSeconds()));
+        report.append(String.format("%-16s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        for (Map.Entry<Endpoint, EndpointResult> entry : results.entrySet()) {
+            EndpointResult result = entry.getValue();
+            all.add(result.latency);
+            completed += result.completedInWindow.sum();
+            errors += result.errors.sum();
+            appendRow(report, entry.getKey().label, result.latency, result.completedInWindow.sum(),
+                    measurement, result.errors.sum());
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(REPORT_DIRECTORY.resolve(entry.getKey().key + ".hgrm")))) {
+                // Recorded in microseconds, printed in milliseconds
+                result.latency.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        appendRow(report, "all", all, completed, measurement, errors);
+
+        report.append(String.format("%nSLOs: %s%n", violations.isEmpty() ? "PASS" : "FAIL"));
+        violations.forEach(violation -> report.append("  ").append(violation).append(System.lineSeparator()));
+
+        System.out.printf("%n%s", report);
+        Files.writeString(REPORT_DIRECTORY.resolve("report.txt"), report);
+    }
+
+    private static void appendRow(StringBuilder report, String label, Histogram latency, long completed,
+                                  Duration measurement, long errors) {
+        report.append(String.format("%-16s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n", label,
+                latency.getTotalCount(), completed / (double) measurement.toSeconds(),
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0, errors));
+    }
+
+    private static Properties loadConfig() throws IOException {
+        Properties config = new Properties();
+        try (InputStream in = LoginFlowLoadTest.class.getResourceAsStream("/load-test.properties")) {
+            config.load(in);
+        }
+        // -Dload.* on the Maven command line wins over the file
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load."))
+                .forEach(name -> config.setProperty(name, System.getProperty(name)));
+        return config;
+    }
+
+    private enum Endpoint {
+        LOGIN_PAGE("login-page", "GET /login"),
+        LOGIN("login", "POST /login"),
+        SIGNUP("signup", "POST /signup"),
+        DASHBOARD("dashboard", "GET /dashboard"),
+        SETTINGS_PAGE("settings-page", "GET /settings"),
+        SETTINGS("settings", "POST /settings");
+
+        private final String key;
+        private final String label;
+
+        Endpoint(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+    }
+
+    private static final class EndpointResult {
+
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder completedInWindow = new LongAdder();
+
+        void record(long latencyNanos, boolean succeeded) {
+            latency.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            if (!succeeded) {
+                errors.increment();
+            }
+        }
+
+        double percentileMillis(String percentile) {
+            double value = switch (percentile) {
+                case "p50" -> 50;
+                case "p99" -> 99;
+                case "p999" -> 99.9;
+                default -> throw new IllegalArgumentException("Unknown percentile: " + percentile);
+            };
+            return latency.getValueAtPercentile(value) / 1000.0;
+        }
+    }
+
+    /**
+     * Picks endpoints at random in proportion to their weights.
+     */
+    private static final class Mix {
+
+        private final Endpoint[] endpoints;
+        private final int[] cumulativeWeights;
+
+        Mix(Map<Endpoint, Integer> weights) {
+            endpoints = weights.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .toArray(Endpoint[]::new);
+            if (endpoints.length == 0) {
+                throw new IllegalArgumentException("At least one load.mix weight must be positive");
+            }
+            cumulativeWeights = new int[endpoints.length];
+            int total = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                total += weights.get(endpoints[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        Endpoint next(Random random) {
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (cumulativeWeights[i] <= pick) {
+                i++;
+            }
+            return endpoints[i];
+        }
+    }
+
+    /**
+     * Builds the request for each endpoint. Sign-ins and signed-in pages go round the users created
+     * up front; every sign-up is a new user.
+     */
+    private static final class Workload {
+
+        private final String baseUrl;
+        private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+        private final List<String> usernames = new ArrayList<>();
+        private final List<String> cookies = new ArrayList<>();
+
+        Workload(HttpClient client, String baseUrl, AuthService authService, int users)
+                throws IOException, InterruptedException {
+            this.baseUrl = baseUrl;
+            for (int i = 0; i < users; i++) {
+                String username = "load" + runId + "_" + i;
+                authService.signUp(username, username + "@example.com", PASSWORD);
+                usernames.add(username);
+            }
+            for (String username : usernames) {
+                HttpResponse<Void> response = client.send(
+                        form("/login", "username", username, "password", PASSWORD),
+                        HttpResponse.BodyHandlers.discarding());
+                assertThat(response.statusCode()).isEqualTo(302);
+                String setCookie = response.headers().firstValue("Set-Cookie").orElseThrow();
+                cookies.add(setCookie.substring(0, setCookie.indexOf(';')));
+            }
+        }
+
+        HttpRequest request(Endpoint endpoint, long sequence) {
+            int user = (int) (sequence % usernames.size());
+            return switch (endpoint) {
+                case LOGIN_PAGE -> get("/login", null);
+                case LOGIN -> form("/login", "username", usernames.get(user), "password", PASSWORD);
+                case SIGNUP -> {
+                    String username = "new" + runId + "_" + sequence;
+                    yield form("/signup", "username", username, "email", username + "@example.com",
+                            "password", PASSWORD);
+                }
+                case DASHBOARD -> get("/dashboard", cookies.get(user));
+                case SETTINGS_PAGE -> get("/settings", cookies.get(user));
+                case SETTINGS -> HttpRequest.newBuilder(URI.create(baseUrl + "/settings"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Cookie", cookies.get(user))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("description=Updated+at+" + sequence))
+                        .build();
+            };
+        }
+
+        private HttpRequest get(String path, String cookie) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET();
+            if (cookie != null) {
+                builder.header("Cookie", cookie);
+            }
+            return builder.build();
+        }
+
+        private HttpRequest form(String path, String... fields) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < fields.length; i += 2) {
+                if (i > 0) {
+                    body.append('&');
+                }
+                body.append(fields[i]).append('=').append(URLEncoder.encode(fields[i + 1], StandardCharsets.UTF_8));
+            }
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.auth.app;
+
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AccountLockout;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.login-throttle.max-attempts-per-username=4",
+        "auth.login-throttle.max-attempts-per-ip=8",
+        "auth.login-lockout.threshold=3"
+})
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class LoginThrottleIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private AccountLockout accountLockout;
+
+    @SpyBean
+    private AuthService authService;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testAttemptsOverUsernameLimitRejectedBeforeLookup() throws Exception {
+        authService.signUp("throttleduser", "throttled@example.com", "password123");
+        for (int i = 0; i < 4; i++) {
+            performLogin("throttleduser", "password123", "10.0.1.1")
+                    .andExpect(redirectedUrl("/dashboard"));
+        }
+        clearInvocations(authService);
+
+        // Case and surrounding whitespace don't give a fresh budget
+        mockMvc.perform(post("/login")
+                        .param("username", " ThrottledUser ")
+                        .param("password", "password123")
+                        .with(remoteAddr("10.0.1.2")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        verify(authService, never()).findByUsername(anyString());
+        verify(authService, never()).validatePasswordAsync(any(), anyString());
+    }
+
+    @Test
+    public void testAttemptsOverIpLimitRejected() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            performLogin("nobody" + i, "password123", "10.0.2.1")
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/login")
+                        .param("username", "nobody-else")
+                        .param("password", "password123")
+                        .with(remoteAddr("10.0.2.1")))
+                .andExpect(status().isTooManyRequests());
+
+        // Another client is unaffected
+        performLogin("nobody-else", "password123", "10.0.2.2")
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testRepeatedFailuresLockTheAccount() throws Exception {
+        User user = authService.signUp("lockeduser", "locked@example.com", "password123");
+        for (int i = 0; i < 3; i++) {
+            performLogin("lockeduser", "wrongpassword", "10.0.3." + i)
+                    .andExpect(status().isOk());
+        }
+
+        User locked = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(locked.getFailedLoginAttempts()).isEqualTo(3);
+        assertThat(locked.getLockedUntil()).isGreaterThan(System.currentTimeMillis());
+
+        // Even the right password is refused while locked, without hashing it
+        clearInvocations(authService);
+        mockMvc.perform(post("/login")
+                        .param("username", "lockeduser")
+                        .param("password", "password123")
+                        .with(remoteAddr("10.0.3.9")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        verify(authService, never()).validatePasswordAsync(any(), anyString());
+    }
+
+    @Test
+    public void testConcurrentFailuresAreAllCounted() throws Exception {
+        User user = authService.signUp("racinguser", "racing@example.com", "password123");
+        // Every thread starts from the same snapshot, as requests loading the user together would
+        User snapshot = userRepository.findById(user.getId()).orElseThrow();
+        int failures = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(failures);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < failures; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    accountLockout.recordFailure(snapshot);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        User locked = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(locked.getFailedLoginAttempts()).isEqualTo(failures);
+        assertThat(locked.getLockedUntil()).isGreaterThan(System.currentTimeMillis());
+        assertThat(accountLockout.lockedForSeconds(locked)).isPositive();
+    }
+
+    @Test
+    public void testSuccessClearsFailuresTheLoadedUserDidNotSee() {
+        User user = authService.signUp("staleuser", "stale@example.com", "password123");
+        User snapshot = userRepository.findById(user.getId()).orElseThrow();
+        accountLockout.recordFailure(snapshot);
+
+        accountLockout.recordSuccess(snapshot);
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getFailedLoginAttempts()).isZero();
+    }
+
+    @Test
+    public void testSuccessfulLoginClearsFailures() throws Exception {
+        User user = authService.signUp("recovereduser", "recovered@example.com", "password123");
+        performLogin("recovereduser", "wrongpassword", "10.0.4.1").andExpect(status().isOk());
+        performLogin("recovereduser", "wrongpassword", "10.0.4.1").andExpect(status().isOk());
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getFailedLoginAttempts()).isEqualTo(2);
+
+        performLogin("recovereduser", "password123", "10.0.4.1")
+                .andExpect(redirectedUrl("/dashboard"));
+
+        User recovered = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(recovered.getFailedLoginAttempts()).isZero();
+        assertThat(recovered.getLockedUntil()).isNull();
+    }
+
+    private ResultActions performLogin(String username, String password, String clientIp) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/login")
+                .param("username", username)
+                .param("password", password)
+                .with(remoteAddr(clientIp)));
+        MvcResult result = actions.andReturn();
+        // Requests that never reach the hashing pool complete synchronously
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.auth.app;
+
+import com.auth.app.mail.MailMessage;
+import com.auth.app.mail.MailOutbox;
+import com.auth.app.mail.MailSink;
+import com.auth.app.tenant.TenancyProperties;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs outbox workers of its own against a database of their own, standing in for nodes that share
+ * it. The shared test database won't do: a cached context with its worker running may poll it too.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@org.springframework.test.context.ActiveProfiles("test")
+public class MailOutboxIntegrationTest {
+
+    private static final String OUTBOX_URL = "jdbc:h2:mem:outboxdb;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    private final List<MailOutbox> outboxes = new ArrayList<>();
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource(OUTBOX_URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        for (MailOutbox outbox : outboxes) {
+            outbox.destroy();
+        }
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    public void testNodesSharingTheOutboxSendEachMessageOnce() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            insertMessage("user" + i + "@example.com", null, null);
+        }
+        List<MailMessage> sent = Collections.synchronizedList(new ArrayList<>());
+        // Slow sinks, so the two workers' passes overlap
+        MailSink sink = messages -> {
+            sent.addAll(messages);
+            sleep(5);
+        };
+        startOutbox(sink);
+        startOutbox(sink);
+
+        awaitEmptyOutbox();
+        assertThat(sent).hasSize(200);
+        assertThat(sent.stream().map(MailMessage::id).distinct()).hasSize(200);
+    }
+
+    @Test
+    public void testLiveClaimsAreSkippedAndStaleOnesTakenOver() throws Exception {
+        long now = System.currentTimeMillis();
+        insertMessage("claimed@example.com", "other-node", now);
+        insertMessage("abandoned@example.com", "dead-node", now - TimeUnit.HOURS.toMillis(1));
+        List<MailMessage> sent = Collections.synchronizedList(new ArrayList<>());
+        startOutbox(sent::addAll);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sent.isEmpty() && System.nanoTime() < deadline) {
+            sleep(20);
+        }
+        // A few more passes, which must keep leaving the live claim alone
+        sleep(200);
+        assertThat(sent).extracting(MailMessage::recipient).containsExactly("abandoned@example.com");
+        assertThat(jdbcTemplate.queryForList("select recipient from email_outbox", String.class))
+                .containsExactly("claimed@example.com");
+    }
+
+    @Test
+    public void testFailedBatchIsReleasedForTheNextPass() throws Exception {
+        insertMessage("retry@example.com", null, null);
+        List<MailMessage> sent = Collections.synchronizedList(new ArrayList<>());
+        boolean[] failedOnce = {false};
+        startOutbox(messages -> {
+            if (!failedOnce[0]) {
+                failedOnce[0] = true;
+                throw new IllegalStateException("relay unavailable");
+            }
+            sent.addAll(messages);
+        });
+
+        awaitEmptyOutbox();
+        assertThat(sent).extracting(MailMessage::recipient).containsExactly("retry@example.com");
+    }
+
+    private void startOutbox(MailSink sink) {
+        MailOutbox outbox = new MailOutbox(dataSource, sink, tenancyProperties, true, 10, 20, 60_000, 5_000);
+        outboxes.add(outbox);
+        outbox.start();
+    }
+
+    private void insertMessage(String recipient, String claimedBy, Long claimedAt) {
+        jdbcTemplate.update("insert into email_outbox (tenantId, recipient, subject, body, createdAt, claimedBy, claimedAt) "
+                + "values ('default', ?, 'Subject', 'Body', ?, ?, ?)", recipient, System.currentTimeMillis(), claimedBy, claimedAt);
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (jdbcTemplate.queryForObject("select count(*) from email_outbox", Integer.class) == 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Outbox not drained");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.auth.app;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthMetrics;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@org.springframework.test.context.ActiveProfiles("test")
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+        authService.signUp("metricsuser", "metrics@example.com", "password123");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testLoginOutcomesAreTagged() throws Exception {
+        long successes = requestCount("login", AuthMetrics.SUCCESS);
+        long badCredentials = requestCount("login", AuthMetrics.BAD_CREDENTIALS);
+        long validationErrors = requestCount("login", AuthMetrics.VALIDATION_ERROR);
+
+        performLogin("metricsuser", "password123");
+        performLogin("metricsuser", "wrongpassword");
+        performLogin("nosuchuser", "password123");
+        mockMvc.perform(post("/login").param("username", " ").param("password", "password123"))
+                .andExpect(status().isOk());
+
+        assertThat(requestCount("login", AuthMetrics.SUCCESS)).isEqualTo(successes + 1);
+        assertThat(requestCount("login", AuthMetrics.BAD_CREDENTIALS)).isEqualTo(badCredentials + 2);
+        assertThat(requestCount("login", AuthMetrics.VALIDATION_ERROR)).isEqualTo(validationErrors + 1);
+        assertThat(operationCount("validate_password", AuthMetrics.SUCCESS)).isPositive();
+        assertThat(operationCount("validate_password", AuthMetrics.BAD_CREDENTIALS)).isPositive();
+        assertThat(operationCount("find_by_username", "not_found")).isPositive();
+    }
+
+    @Test
+    public void testSignupOutcomesAreTagged() throws Exception {
+        long successes = requestCount("signup", AuthMetrics.SUCCESS);
+        long validationErrors = requestCount("signup", AuthMetrics.VALIDATION_ERROR);
+
+        mockMvc.perform(post("/signup")
+                        .param("username", "newmetricsuser")
+                        .param("email", "new.metrics@example.com")
+                        .param("password", "password123"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/signup")
+                        .param("username", "metricsuser")
+                        .param("email", "other@example.com")
+                        .param("password", "password123"))
+                .andExpect(status().isOk());
+
+        assertThat(requestCount("signup", AuthMetrics.SUCCESS)).isEqualTo(successes + 1);
+        assertThat(requestCount("signup", AuthMetrics.VALIDATION_ERROR)).isEqualTo(validationErrors + 1);
+        assertThat(operationCount("signup", AuthMetrics.VALIDATION_ERROR)).isPositive();
+    }
+
+    @Test
+    public void testPrometheusEndpointExposesTimersWithPercentiles() throws Exception {
+        performLogin("metricsuser", "password123");
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "auth_request_seconds_count{endpoint=\"login\",outcome=\"success\"")))
+                .andExpect(content().string(containsString(
+                        "auth_operation_seconds{operation=\"validate_password\",outcome=\"success\",quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("auth_operation_seconds_bucket{")))
+                .andExpect(content().string(containsString("auth_user_cache_requests_total{result=\"hit\"")))
+                .andExpect(content().string(containsString("auth_user_lookup_queries_total")))
+                .andExpect(content().string(containsString("auth_password_hashing_queued")));
+    }
+
+    private void performLogin(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                        .param("username", username)
+                        .param("password", password))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result));
+        }
+    }
+
+    private long requestCount(String endpoint, String outcome) {
+        Timer timer = meterRegistry.find(AuthMetrics.REQUEST_TIMER)
+                .tags("endpoint", endpoint, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long operationCount(String operation, String outcome) {
+        Timer timer = meterRegistry.find(AuthMetrics.OPERATION_TIMER)
+                .tags("operation", operation, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
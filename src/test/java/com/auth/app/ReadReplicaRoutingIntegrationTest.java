@@ -0,0 +1,116 @@
+package com.auth.app;
+
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two H2 databases, the second standing in for a replica. Nothing replicates between
+ * them, so which one answered a read shows which one it was routed to.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.datasource.replica.urls=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL + ";IFEXISTS=TRUE",
+        "auth.datasource.replica.health-check-interval-ms=0"
+})
+@org.springframework.test.context.ActiveProfiles("test")
+public class ReadReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    // Outside a transaction, so always the primary
+    @Autowired
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        createReplicaSchema();
+        routingDataSource.checkReplicas();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primary.update("delete from users");
+        replica.update("drop all objects");
+        userCache.clear();
+    }
+
+    @Test
+    public void testReadsGoToReplicaAndWritesToPrimary() {
+        insertUser(replica, 1_000_001L, "replicaonly");
+
+        assertThat(userRepository.findByUsername("replicaonly")).isPresent();
+
+        User created = authService.signUp("writer", "writer@example.com", "password123");
+        assertThat(primary.queryForObject("select count(*) from users where id = ?", Integer.class, created.getId()))
+                .isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from users", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void testUserIsReadFromPrimaryRightAfterSignUp() {
+        authService.signUp("freshuser", "fresh@example.com", "password123");
+        userCache.clear();
+
+        // The replica hasn't got the row, but the service keeps this user's reads on the primary
+        assertThat(userRepository.findByUsername("freshuser")).isEmpty();
+        assertThat(authService.findByUsername("freshuser")).isPresent();
+        assertThat(authService.findProfile("freshuser")).isPresent();
+    }
+
+    @Test
+    public void testReadsFailOverToPrimaryWhileReplicaIsDown() {
+        insertUser(primary, 1_000_002L, "primaryonly");
+        assertThat(userRepository.findByUsername("primaryonly")).isEmpty();
+
+        replica.execute("shutdown");
+        assertThat(userRepository.findByUsername("primaryonly")).isPresent();
+        assertThat(routingDataSource.getHealthyReplicaCount()).isZero();
+
+        // Back in rotation once a health check passes
+        createReplicaSchema();
+        routingDataSource.checkReplicas();
+        assertThat(routingDataSource.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(userRepository.findByUsername("primaryonly")).isEmpty();
+    }
+
+    // Copies the users table definition from the primary, without its rows
+    private void createReplicaSchema() {
+        replica.update("drop all objects");
+        for (String statement : primary.queryForList("script nodata nopasswords nosettings table users", String.class)) {
+            if (!statement.startsWith("--") && !statement.startsWith("CREATE USER")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    private static void insertUser(JdbcTemplate target, long id, String username) {
+        target.update("insert into users (id, username, email, password, enabled, createdAt, failedLoginAttempts) "
+                + "values (?, ?, ?, 'hash', true, 0, 0)", id, username, username + "@example.com");
+    }
+}
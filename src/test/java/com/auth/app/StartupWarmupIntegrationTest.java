@@ -0,0 +1,67 @@
+package com.auth.app;
+
+import com.auth.app.config.StartupWarmup;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthMetrics;
+import com.auth.app.service.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "auth.warmup.iterations=5")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@org.springframework.test.context.ActiveProfiles("test")
+public class StartupWarmupIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testReadinessReportsCompletedWarmup() throws Exception {
+        assertThat(startupWarmup.isComplete()).isTrue();
+
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.warmup.status").value("UP"))
+                .andExpect(jsonPath("$.components.warmup.details.iterations").value(5));
+    }
+
+    @Test
+    public void testWarmupSignsInWithoutLeavingTraces() {
+        // Every round reached the dashboard, so the synthetic user signed in
+        Timer dashboard = meterRegistry.find("http.server.requests").tag("uri", "/dashboard").tag("status", "200").timer();
+        assertThat(dashboard).isNotNull();
+        assertThat(dashboard.count()).isGreaterThanOrEqualTo(5);
+
+        assertThat(meterRegistry.find(AuthMetrics.REQUEST_TIMER).timers()).isEmpty();
+        assertThat(meterRegistry.find(AuthMetrics.OPERATION_TIMER).timers()).isEmpty();
+        assertThat(userRepository.findAll()).noneMatch(user -> user.getUsername().startsWith("warmup-"));
+        // Nothing else in this context touches the cache, so it is as empty as it was before the warmup
+        assertThat(userCache.size()).isZero();
+        assertThat(userCache.getById(-1L)).isEmpty();
+    }
+}
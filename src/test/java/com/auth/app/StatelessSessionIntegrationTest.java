@@ -0,0 +1,138 @@
+package com.auth.app;
+
+import com.auth.app.datasource.ReadWriteRoutingDataSource;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.session.SessionTokenService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.session.mode=stateless",
+        "auth.session.token-secret=" + StatelessSessionIntegrationTest.SECRET
+})
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class StatelessSessionIntegrationTest {
+
+    static final String SECRET = "c3RhdGVsZXNzLXNlc3Npb24tdGVzdC1zZWNyZXQtMzJi";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        authService.signUp("tokenuser", "tokenuser@example.com", "password123", "Token description");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testLoginIssuesSignedCookieWithoutHttpSession() throws Exception {
+        MvcResult login = login();
+
+        assertThat(login.getRequest().getSession(false)).isNull();
+        Cookie token = login.getResponse().getCookie("AUTH_TOKEN");
+        assertThat(token).isNotNull();
+        assertThat(token.isHttpOnly()).isTrue();
+
+        mockMvc.perform(get("/dashboard").cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(view().name("dashboard"))
+                .andExpect(model().attribute("username", "tokenuser"))
+                .andExpect(model().attribute("description", "Token description"));
+    }
+
+    @Test
+    public void testTamperedCookieIsRejected() throws Exception {
+        Cookie token = login().getResponse().getCookie("AUTH_TOKEN");
+        String value = token.getValue();
+        Cookie tampered = new Cookie("AUTH_TOKEN", "x" + value.substring(1));
+
+        mockMvc.perform(get("/dashboard").cookie(tampered))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/login"));
+    }
+
+    @Test
+    public void testLogoutRevokesToken() throws Exception {
+        Cookie token = login().getResponse().getCookie("AUTH_TOKEN");
+
+        mockMvc.perform(get("/logout").cookie(token))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/dashboard").cookie(token))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/login"));
+    }
+
+    @Test
+    public void testLogoutOnOneNodeIsRefusedByTheOthersAfterSync() throws Exception {
+        SessionTokenService otherNode = new SessionTokenService(SECRET, "1800", "stateless", routingDataSource);
+        Cookie token = login().getResponse().getCookie("AUTH_TOKEN");
+        assertThat(otherNode.verify(token.getValue())).isPresent();
+
+        mockMvc.perform(get("/logout").cookie(token))
+                .andExpect(status().is3xxRedirection());
+        otherNode.syncRevocations();
+
+        assertThat(otherNode.verify(token.getValue())).isEmpty();
+        // A node started later learns it on its first sync
+        SessionTokenService newNode = new SessionTokenService(SECRET, "1800", "stateless", routingDataSource);
+        newNode.syncRevocations();
+        assertThat(newNode.verify(token.getValue())).isEmpty();
+    }
+
+    @Test
+    public void testStatelessModeRequiresTheSharedSecret() {
+        assertThatThrownBy(() -> new SessionTokenService("", "1800", "stateless", routingDataSource))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("auth.session.token-secret");
+        assertThat(new SessionTokenService("", "1800", "http", routingDataSource)).isNotNull();
+    }
+
+    private MvcResult login() throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                .param("username", "tokenuser")
+                .param("password", "password123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(redirectedUrl("/dashboard"))
+                .andReturn();
+    }
+}
@@ -0,0 +1,204 @@
+package com.auth.app;
+
+import com.auth.app.datasource.TenantRoutingDataSource;
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.tenancy.tenants=acme,globex",
+        "auth.tenancy.datasources.isolated.url=" + TenantIsolationIntegrationTest.ISOLATED_URL,
+        "auth.tenancy.shared-pool.max-connections-per-tenant=3",
+        "auth.tenancy.shared-pool.acquire-timeout-ms=200"
+})
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class TenantIsolationIntegrationTest {
+
+    static final String ISOLATED_URL = "jdbc:h2:mem:tenant-isolated;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantRoutingDataSource tenantRoutingDataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanUp() {
+        // Native SQL sees every tenant's rows in the shared database
+        jdbcTemplate.update("delete from users");
+        TenantContext.runAs("isolated", () -> userRepository.deleteAll());
+        userCache.clear();
+    }
+
+    @Test
+    public void testSameUsernameInTwoTenantsAreSeparateAccounts() throws Exception {
+        signUp("acme", "alice", "alice@example.com", "acme-password").andExpect(status().isCreated());
+        signUp("globex", "alice", "alice@example.com", "globex-password").andExpect(status().isCreated());
+        signUp("acme", "alice", "alice2@example.com", "password123")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Username already exists"));
+
+        login("acme", "alice", "acme-password").andExpect(status().isOk());
+        login("globex", "alice", "acme-password").andExpect(status().isUnauthorized());
+        login(TenantContext.DEFAULT_TENANT, "alice", "acme-password").andExpect(status().isUnauthorized());
+
+        User acmeAlice = TenantContext.callAs("acme", () -> userRepository.findByUsername("alice")).orElseThrow();
+        assertThat(acmeAlice.getTenantId()).isEqualTo("acme");
+        assertThat(TenantContext.callAs("globex", () -> userRepository.findByUsername("alice")).orElseThrow().getId())
+                .isNotEqualTo(acmeAlice.getId());
+        assertThat(TenantContext.callAs("globex", () -> authService.findById(acmeAlice.getId()))).isEmpty();
+    }
+
+    @Test
+    public void testTokensAndSessionsOnlyWorkForTheirTenant() throws Exception {
+        signUp("acme", "bob", "bob@example.com", "password123").andExpect(status().isCreated());
+
+        MvcResult apiLogin = login("acme", "bob", "password123").andExpect(status().isOk()).andReturn();
+        String token = objectMapper.readTree(apiLogin.getResponse().getContentAsString()).get("token").asText();
+        mockMvc.perform(get("/api/v1/profile").header(TENANT_HEADER, "acme").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/profile").header(TENANT_HEADER, "globex").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+
+        MvcResult formLogin = mockMvc.perform(post("/login").header(TENANT_HEADER, "acme")
+                        .param("username", "bob")
+                        .param("password", "password123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(formLogin)).andExpect(redirectedUrl("/dashboard"));
+        MockHttpSession session = (MockHttpSession) formLogin.getRequest().getSession(false);
+
+        mockMvc.perform(get("/dashboard").header(TENANT_HEADER, "acme").session(session))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/dashboard").header(TENANT_HEADER, "globex").session(session))
+                .andExpect(redirectedUrl("/login"));
+    }
+
+    @Test
+    public void testUnknownAndMalformedTenantsAreRejected() throws Exception {
+        mockMvc.perform(get("/login").header(TENANT_HEADER, "initech")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/login").header(TENANT_HEADER, "not a tenant")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/login")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void testDedicatedTenantIsStoredInItsOwnDatabase() throws Exception {
+        signUp("isolated", "carol", "carol@example.com", "password123").andExpect(status().isCreated());
+        login("isolated", "carol", "password123").andExpect(status().isOk());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from users where username = 'carol'", Integer.class))
+                .isZero();
+        try (Connection connection = DriverManager.getConnection(ISOLATED_URL, "sa", "");
+             ResultSet rows = connection.createStatement()
+                     .executeQuery("select tenantId from users where username = 'carol'")) {
+            assertThat(rows.next()).isTrue();
+            assertThat(rows.getString(1)).isEqualTo("isolated");
+        }
+    }
+
+    @Test
+    public void testSharedConnectionQuotaIsPerTenant() throws Exception {
+        try (TenantContext.Scope ignored = TenantContext.enter("acme");
+             Connection first = tenantRoutingDataSource.getConnection();
+             Connection second = tenantRoutingDataSource.getConnection();
+             Connection third = tenantRoutingDataSource.getConnection()) {
+            assertThat(tenantRoutingDataSource.getSharedConnectionsInUse("acme")).isEqualTo(3);
+            assertThatThrownBy(tenantRoutingDataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class);
+
+            // Another tenant still gets connections while acme is at its limit
+            TenantContext.runAs("globex", () -> assertThat(authService.findByUsername("nobody")).isEmpty());
+        }
+        assertThat(tenantRoutingDataSource.getSharedConnectionsInUse("acme")).isZero();
+    }
+
+    @Test
+    public void testLargeTenantCannotEvictSmallTenantFromCache() {
+        // At most 4 entries per tenant and 5 in all
+        UserCache cache = new UserCache(true, 5, 4, 300);
+        TenantContext.runAs("globex", () -> {
+            cache.put(User.builder().id(1L).username("small1").email("s1@example.com").password("x").build());
+            cache.put(User.builder().id(2L).username("small2").email("s2@example.com").password("x").build());
+        });
+        TenantContext.runAs("acme", () -> {
+            for (long id = 100; id < 120; id++) {
+                cache.put(User.builder().id(id).username("big" + id).email(id + "@example.com").password("x").build());
+            }
+            assertThat(cache.tenantSize()).isEqualTo(3);
+            assertThat(cache.getById(1L)).isEmpty();
+            assertThat(cache.getByUsername("small1")).isEmpty();
+        });
+        TenantContext.runAs("globex", () -> {
+            assertThat(cache.getByUsername("small1")).isPresent();
+            assertThat(cache.getById(2L)).isPresent();
+        });
+        assertThat(cache.size()).isEqualTo(5);
+    }
+
+    private ResultActions signUp(String tenant, String username, String email, String password) throws Exception {
+        return mockMvc.perform(post("/api/v1/signup")
+                .header(TENANT_HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("username", username, "email", email, "password", password))));
+    }
+
+    private ResultActions login(String tenant, String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/login")
+                        .header(TENANT_HEADER, tenant)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("username", username, "password", password))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
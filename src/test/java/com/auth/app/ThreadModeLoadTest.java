@@ -0,0 +1,171 @@
+package com.auth.app;
+
+import com.auth.app.service.AuthService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the same signed-in workload (dashboard renders with a settings update every tenth
+ * request) against the app in platform-thread and virtual-thread mode and prints throughput
+ * and latency for each. More concurrent users than Tomcat's platform pool has threads, so the
+ * platform run queues where the virtual run does not. Run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+public class ThreadModeLoadTest {
+
+    private static final int USERS = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Test
+    public void testPlatformAndVirtualThreadModes() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12.0f %10.2f %10.2f %10.2f %8d%n", result.mode(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis(), result.errors());
+        }
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringAuthAppApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--logging.level.root=WARN", "--logging.level.com.auth.app=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--auth.login-throttle.enabled=false")) {
+            AuthService authService = context.getBean(AuthService.class);
+            for (int i = 0; i < USERS; i++) {
+                authService.signUp("loaduser" + i, "loaduser" + i + "@example.com", "password123");
+            }
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+            List<String> cookies = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                cookies.add(signIn(client, baseUrl, "loaduser" + i));
+            }
+
+            LongAdder errors = new LongAdder();
+            long start = System.nanoTime();
+            long measureFrom = start + WARMUP.toNanos();
+            long deadline = measureFrom + MEASUREMENT.toNanos();
+            List<Future<long[]>> futures = new ArrayList<>(USERS);
+            try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String cookie : cookies) {
+                    futures.add(users.submit(() -> drive(client, baseUrl, cookie, measureFrom, deadline, errors)));
+                }
+            }
+
+            long[] latencies = futures.stream()
+                    .map(ThreadModeLoadTest::join)
+                    .flatMapToLong(Arrays::stream)
+                    .sorted()
+                    .toArray();
+            return new Result(virtualThreads ? "virtual" : "platform", latencies.length,
+                    latencies.length / (double) MEASUREMENT.toSeconds(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000_000.0,
+                    errors.sum());
+        }
+    }
+
+    private static long[] drive(HttpClient client, String baseUrl, String cookie,
+                                long measureFrom, long deadline, LongAdder errors) {
+        HttpRequest dashboard = HttpRequest.newBuilder(URI.create(baseUrl + "/dashboard"))
+                .header("Cookie", cookie)
+                .GET()
+                .build();
+        HttpRequest settings = HttpRequest.newBuilder(URI.create(baseUrl + "/settings"))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("description=load+test"))
+                .build();
+
+        long[] latencies = new long[1024];
+        int count = 0;
+        for (int i = 0; ; i++) {
+            long begin = System.nanoTime();
+            if (begin >= deadline) {
+                break;
+            }
+            HttpRequest request = i % 10 == 9 ? settings : dashboard;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                boolean ok = request == dashboard ? response.statusCode() == 200 : response.statusCode() == 302;
+                if (!ok) {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+            if (begin >= measureFrom) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - begin;
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static String signIn(HttpClient client, String baseUrl, String username) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + username + "&password=password123"))
+                .build();
+        HttpResponse<Void> response = client.send(login, HttpResponse.BodyHandlers.discarding());
+        assertThat(response.statusCode()).isEqualTo(302);
+        String setCookie = response.headers().firstValue("Set-Cookie").orElseThrow();
+        return setCookie.substring(0, setCookie.indexOf(';'));
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(String mode, long requests, double throughput, double p50Millis,
+                          double p99Millis, double maxMillis, long errors) {
+    }
+}
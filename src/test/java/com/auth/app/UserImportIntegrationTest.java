@@ -0,0 +1,126 @@
+package com.auth.app;
+
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.service.UserImportReader;
+import com.auth.app.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@org.springframework.test.context.ActiveProfiles("test")
+public class UserImportIntegrationTest {
+
+    private static final String ADMIN_TOKEN = "test-admin-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testCsvImportReportsRowFailuresWithoutAborting() throws Exception {
+        authService.signUp("existing", "existing@example.com", "password123");
+        String csv = """
+                username,email,password,description
+                csvuser1,csvuser1@example.com,password123,"Likes commas, and ""quotes\"\"\"
+                csvuser2,not-an-email,password123,
+                existing,fresh@example.com,password123,
+                csvuser1,other@example.com,password123,
+                csvuser3,csvuser3@example.com,password123,
+                """;
+
+        mockMvc.perform(post("/admin/users/import")
+                .header("X-Admin-Token", ADMIN_TOKEN)
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.failures[0].row").value(2))
+                .andExpect(jsonPath("$.failures[0].reason").value("Invalid email format"));
+
+        assertThat(authService.findByUsername("csvuser1").orElseThrow().getDescription())
+                .isEqualTo("Likes commas, and \"quotes\"");
+        assertThat(authService.validatePassword("password123",
+                authService.findByUsername("csvuser3").orElseThrow().getPassword())).isTrue();
+    }
+
+    @Test
+    public void testOverlongDescriptionIsReportedAsSuch() {
+        String ndjson = "{\"username\":\"longdesc\",\"email\":\"longdesc@example.com\",\"password\":\"password123\","
+                + "\"description\":\"" + "x".repeat(501) + "\"}\n"
+                + "{\"username\":\"shortdesc\",\"email\":\"shortdesc@example.com\",\"password\":\"password123\"}\n";
+
+        UserImportService.ImportReport report = userImportService.importUsers(
+                UserImportReader.open(UserImportReader.Format.NDJSON, new StringReader(ndjson)));
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.failures()).containsExactly(
+                new UserImportService.RowFailure(1, "Description must not exceed 500 characters"));
+        assertThat(userRepository.findByUsername("shortdesc")).isPresent();
+    }
+
+    @Test
+    public void testImportRequiresAdminToken() throws Exception {
+        mockMvc.perform(post("/admin/users/import")
+                .contentType("application/x-ndjson")
+                .content("{\"username\":\"nobody\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    // Reports the import rate; run with mvn -Pload-test test -Dtest=UserImportIntegrationTest
+    @Test
+    @Tag("load")
+    public void testNdjsonImportThroughputWithPrehashedPasswords() {
+        int rows = 20_000;
+        String hash = new BCryptPasswordEncoder(4).encode("password123");
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            ndjson.append("{\"username\":\"bulk").append(i)
+                    .append("\",\"email\":\"bulk").append(i).append("@example.com\",\"passwordHash\":\"")
+                    .append(hash).append("\"}\n");
+        }
+
+        UserImportService.ImportReport report = userImportService.importUsers(
+                UserImportReader.open(UserImportReader.Format.NDJSON, new StringReader(ndjson.toString())));
+
+        System.out.printf("Bulk import: %d rows in %d ms (%.0f rows/s)%n",
+                report.imported(), report.elapsedMillis(), report.rowsPerSecond());
+        assertThat(report.imported()).isEqualTo(rows);
+        assertThat(report.failed()).isZero();
+        assertThat(report.rowsPerSecond()).isGreaterThan(0);
+        assertThat(userRepository.count()).isEqualTo(rows);
+    }
+}
@@ -0,0 +1,131 @@
+package com.auth.app;
+
+import com.auth.app.entity.User;
+import com.auth.app.repository.UserRepository;
+import com.auth.app.service.AuthService;
+import com.auth.app.service.UserCache;
+import com.auth.app.service.UserLookupCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@org.springframework.test.context.ActiveProfiles("test")
+public class UserLookupCoalescingIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private UserLookupCoalescer coalescer;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+        for (String username : List.of("shared", "first", "second")) {
+            authService.signUp(username, username + "@example.com", "password123");
+        }
+        // Single-key lookups hold their connection until the gate opens, as a slow query would.
+        // A long window, so distinct lookups wait for a second key rather than the clock
+        coalescer = new UserLookupCoalescer(gatedRepository(), true, 5_000_000, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gate.countDown();
+        executor.shutdownNow();
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    public void testConcurrentLookupsOfOneUserShareAQuery() throws Exception {
+        List<Future<Optional<User>>> lookups = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lookups.add(executor.submit(() -> coalescer.findByUsernameKey("shared")));
+        }
+        awaitCount(coalescer::getJoinedCount, 4);
+        gate.countDown();
+
+        List<User> found = new ArrayList<>();
+        for (Future<Optional<User>> lookup : lookups) {
+            found.add(lookup.get(10, TimeUnit.SECONDS).orElseThrow());
+        }
+        assertThat(calls).containsExactly("findByUsernameKey");
+        assertThat(coalescer.getRequestCount()).isEqualTo(5);
+        assertThat(coalescer.getQueryCount()).isEqualTo(1);
+        assertThat(found).extracting(User::getUsername).containsOnly("shared");
+        // Each caller gets a copy of its own
+        found.get(0).setDescription("changed");
+        assertThat(found.get(1).getDescription()).isNull();
+    }
+
+    @Test
+    public void testDistinctLookupsDuringARunningQueryAreBatched() throws Exception {
+        Future<Optional<User>> first = executor.submit(() -> coalescer.findByUsernameKey("first"));
+        awaitCount(coalescer::getQueryCount, 1);
+
+        // "first" is still running, so these two wait for each other and share one query
+        Future<Optional<User>> second = executor.submit(() -> coalescer.findByUsernameKey("second"));
+        Future<Optional<User>> missing = executor.submit(() -> coalescer.findByUsernameKey("nobody"));
+        assertThat(second.get(10, TimeUnit.SECONDS)).map(User::getUsername).contains("second");
+        assertThat(missing.get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(calls).containsExactly("findByUsernameKey", "findByUsernameKeyIn");
+
+        gate.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).map(User::getUsername).contains("first");
+        assertThat(coalescer.getRequestCount()).isEqualTo(3);
+        assertThat(coalescer.getQueryCount()).isEqualTo(2);
+    }
+
+    private UserRepository gatedRepository() {
+        return (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("findByUsernameKey")) {
+                        calls.add(method.getName());
+                    }
+                    if (method.getName().equals("findByUsernameKey")) {
+                        gate.await(10, TimeUnit.SECONDS);
+                    }
+                    try {
+                        return method.invoke(userRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count.getAsLong()).isEqualTo(expected);
+    }
+}